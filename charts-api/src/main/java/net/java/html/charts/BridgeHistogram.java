@@ -0,0 +1,148 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** {@link ChartProbe} collecting histograms of durations of the calls.
+ * Durations are counted in buckets of powers of two nanoseconds, so
+ * recording a call is just a few atomic increments without any allocation
+ * or locking. One instance may be shared by many charts, even on different
+ * threads:
+ * <pre>
+ * static final BridgeHistogram BRIDGE = new BridgeHistogram();
+ * chart.{@link Chart#instrument(net.java.html.charts.ChartProbe) instrument}(BRIDGE);
+ * // later
+ * System.out.println(BRIDGE);
+ * </pre>
+ */
+public final class BridgeHistogram implements ChartProbe {
+    private static final int BUCKETS = 64;
+    private static final int COUNT = 0;
+    private static final int ELEMENTS = 1;
+    private static final int NANOS = 2;
+    private static final int HISTOGRAM = 3;
+    private static final int STRIDE = HISTOGRAM + BUCKETS;
+    private final AtomicLongArray data = new AtomicLongArray(Operation.values().length * STRIDE);
+
+    /** Creates empty histograms. */
+    public BridgeHistogram() {
+    }
+
+    @Override
+    public void bridgeCall(Chart<?, ?> chart, Operation op, int elements, long nanos) {
+        final int at = op.ordinal() * STRIDE;
+        data.incrementAndGet(at + COUNT);
+        data.addAndGet(at + ELEMENTS, elements);
+        data.addAndGet(at + NANOS, nanos);
+        data.incrementAndGet(at + HISTOGRAM + bucket(nanos));
+    }
+
+    /** Number of calls.
+     * @param op kind of the calls
+     * @return number of recorded calls
+     */
+    public long getCount(Operation op) {
+        return data.get(op.ordinal() * STRIDE + COUNT);
+    }
+
+    /** Number of elements carried by the calls.
+     * @param op kind of the calls
+     * @return sum of elements of all the calls
+     */
+    public long getElements(Operation op) {
+        return data.get(op.ordinal() * STRIDE + ELEMENTS);
+    }
+
+    /** Time spent in the calls.
+     * @param op kind of the calls
+     * @return sum of durations of all the calls in nanoseconds
+     */
+    public long getNanos(Operation op) {
+        return data.get(op.ordinal() * STRIDE + NANOS);
+    }
+
+    /** Estimates a percentile of durations of the calls. The result is
+     * the upper bound of the bucket containing the percentile, so it is
+     * at most twice the real value.
+     *
+     * @param op kind of the calls
+     * @param percentile value between <code>0</code> and <code>100</code>
+     * @return duration in nanoseconds, <code>0</code> if there were no calls
+     */
+    public long getPercentile(Operation op, double percentile) {
+        final int at = op.ordinal() * STRIDE + HISTOGRAM;
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += data.get(at + i);
+        }
+        final long limit = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += data.get(at + i);
+            if (seen >= limit && seen > 0) {
+                return i == 0 ? 0 : 1L << Math.min(i, 62);
+            }
+        }
+        return 0;
+    }
+
+    /** Clears all the histograms.
+     */
+    public void reset() {
+        for (int i = 0; i < data.length(); i++) {
+            data.set(i, 0);
+        }
+    }
+
+    private static int bucket(long nanos) {
+        return nanos <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    /** Summary of the recorded calls. One line for each kind of calls
+     * with count, elements, total time and median and 99th percentile
+     * of durations.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Operation op : Operation.values()) {
+            final long count = getCount(op);
+            if (count == 0) {
+                continue;
+            }
+            sb.append(op).
+                append(" count=").append(count).
+                append(" elements=").append(getElements(op)).
+                append(" nanos=").append(getNanos(op)).
+                append(" p50<=").append(getPercentile(op, 50)).
+                append(" p99<=").append(getPercentile(op, 99)).
+                append('\n');
+        }
+        return sb.toString();
+    }
+}
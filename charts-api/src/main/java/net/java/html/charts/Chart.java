@@ -26,11 +26,21 @@ package net.java.html.charts;
  * #L%
  */
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
 import net.java.html.js.JavaScriptBody;
-import net.java.html.js.JavaScriptResource;
 
 /** Instance of a single chart. The chart is created by one of the
  * factory methods (like {@link #createBar(net.java.html.charts.Values.Set...)},
@@ -44,24 +54,35 @@ import net.java.html.js.JavaScriptResource;
  * <pre>
  * chart.{@link #applyTo(java.lang.String) applyTo}("elementId");
  * </pre>
+ * Creating, configuring and filling the chart with data is plain Java
+ * and can be done on any thread. Only {@link #applyTo(java.lang.String)}
+ * and the changes made after it talk to the browser and have to happen
+ * on the thread of the presenter.
  *
  * @param <D> type of data to put into {@link #getData()} list
  * @param <C> type of the {@link Config configuration} object for this chart
  */
-@JavaScriptResource("Chart.min.js")
 public final class Chart<D, C extends Config> {
     private final C config;
     private final Values.Set[] dataSets;
-    private final List<D> data;
+    private final ChartList<D> data;
     private final String type;
     private Object chart;
-    private ChartListener listener;
+    private ChartListener[] listeners = Listeners.EMPTY;
+    private List<ChartRenderer.Change> pending;
+    private int window;
+    private Decimation decimation;
+    private int maxFps;
+    private boolean hitTest;
+    private HitGrid grid;
+    private ChartProbe probe;
+    private ChartRenderer renderer;
 
     private Chart(String type, Class<D> elementType, C config, Values.Set[] dataSets) {
         this.type = type;
         this.config = config;
-        this.data = new ChartList<>(elementType);
         this.dataSets = dataSets;
+        this.data = new ChartList<>(elementType);
     }
 
     /** Associates the chart with an element on the page. This method
@@ -74,56 +95,76 @@ public final class Chart<D, C extends Config> {
         if (chart != null) {
             throw new IllegalStateException("Already initialized");
         }
-        String clickLocationFn;
+        if (renderer == null) {
+            renderer = ChartRenderer.find(type);
+        }
+        if (decimation != null) {
+            decimation.refresh(data.columns(), 0, data.size());
+        }
+        final long at = start();
+        this.chart = renderer.create(this, id, config.js());
         if (dataSets != null) {
-            Values[] arr = data.toArray(new Values[0]);
-
-            String[] names = new String[arr.length];
-            Object[] labels = new Object[dataSets.length];
-
-            for (int i = 0; i < dataSets.length; i++) {
-                final Object[] clone = dataSets[i].raw.clone();
-                final double[] valuesForDataSet = new double[arr.length];
-                for (int j = 0; j < arr.length; j++) {
-                    valuesForDataSet[j] = arr[j].values[i];
-                }
-                clone[5] = valuesForDataSet;
-                labels[i] = clone;
-            }
-
-            for (int i = 0; i < arr.length; i++) {
-                names[i] = arr[i].label;
-            }
-            switch (type) {
-                case "Line":
-                    clickLocationFn = "getPointsAtEvent";
-                    break;
-                case "Bar":
-                    clickLocationFn = "getBarsAtEvent";
-                    break;
-                case "Radar":
-                    clickLocationFn = "getPointsAtEvent";
-                    break;
-                default:
-                    throw new IllegalStateException(type);
-            }
-            this.chart = initLineLike(id, type, config.js, labels, names);
+            done(ChartProbe.Operation.INIT_LINE_LIKE, displayedCount() * dataSets.length, at);
         } else {
-            Segment[] arr = data.toArray(new Segment[0]);
-            double[] values = new double[arr.length];
-            String[] labels = new String[arr.length];
-            String[] colors = new String[arr.length];
-            String[] highlights = new String[arr.length];
-            for (int i = 0; i < arr.length; i++) {
-                values[i] = arr[i].value;
-                labels[i] = arr[i].label;
-                colors[i] = arr[i].color.color;
-                highlights[i] = arr[i].highlight.color;
-            }
-            this.chart = init360(type, id, config.js, labels, values, colors, highlights);
-            clickLocationFn = "getSegmentsAtEvent";
+            done(ChartProbe.Operation.INIT_360, data.size(), at);
+        }
+    }
+
+    /** Selects the renderer to draw this chart with. By default the
+     * chart is drawn by the first {@link ChartRenderer} registered via
+     * {@link java.util.ServiceLoader} that accepts the type of this chart,
+     * or by the bundled <a href="http://www.chartjs.org">Chart.js</a>.
+     *
+     * @param renderer the renderer to use
+     * @return <code>this</code>
+     * @throws IllegalStateException if the chart is already {@link #applyTo(java.lang.String) displayed}
+     * @throws IllegalArgumentException if the renderer doesn't accept this type of chart
+     */
+    public Chart<D, C> renderWith(ChartRenderer renderer) {
+        if (isRealized()) {
+            throw new IllegalStateException("Already initialized");
+        }
+        if (!renderer.accepts(type)) {
+            throw new IllegalArgumentException("Cannot render " + type + " with " + renderer);
         }
-        addListener(id, clickLocationFn, chart);
+        this.renderer = renderer;
+        return this;
+    }
+
+    final String type() {
+        return type;
+    }
+
+    final Values.Set[] dataSets() {
+        return dataSets;
+    }
+
+    final Decimation decimation() {
+        return decimation;
+    }
+
+    /** Columns of the displayed values, the first
+     * {@link #displayedCount()} of them are valid.
+     */
+    final Columns displayedColumns() {
+        final Columns columns = data.columns();
+        return decimation == null ? columns : decimation.select(columns, 0);
+    }
+
+    final int displayedCount() {
+        return decimation == null ? data.size() : decimation.count;
+    }
+
+    final String labelAt(int index) {
+        return data.labelOf(index);
+    }
+
+    final double valueAt(int index, int set) {
+        return data.valueOf(index, set);
+    }
+
+    final boolean isHitTest() {
+        return hitTest;
     }
 
     final Object chartJs() {
@@ -134,22 +175,208 @@ public final class Chart<D, C extends Config> {
         return chart != null;
     }
 
-    final void removeData(int index) {
-        removeData(chart, index);
+    /** Performs a batch of modifications of the {@link #getData() data}.
+     * All changes made by the <code>changes</code> code are collected and
+     * sent to the chart in a single call followed by a single repaint:
+     * <pre>
+     * chart.batch(new Runnable() {
+     *   public void run() {
+     *     for (int i = 0; i &lt; chart.getData().size(); i++) {
+     *       chart.getData().set(i, new Values("Column " + i, i));
+     *     }
+     *   }
+     * });
+     * </pre>
+     * Batches may be nested, the changes are sent to the chart when the
+     * outermost batch finishes. If the chart isn't yet
+     * {@link #applyTo(java.lang.String) displayed}, the code is just executed.
+     *
+     * @param changes code modifying the {@link #getData() data} of this chart
+     */
+    public void batch(Runnable changes) {
+        boolean outermost = beginBatch();
+        try {
+            changes.run();
+        } finally {
+            endBatch(outermost);
+        }
+    }
+
+    private boolean beginBatch() {
+        if (pending != null || !isRealized()) {
+            return false;
+        }
+        pending = new ArrayList<>();
+        if (maxFps > 0) {
+            requestFrame(chart, 1000.0 / maxFps);
+            return false;
+        }
+        return true;
+    }
+
+    final void onFrame() {
+        if (pending != null && isRealized()) {
+            endBatch(true);
+        }
     }
 
-    /** Adds a listener to the chart.
+    /** Sends the changes to the chart immediately, unless in the
+     * middle of a {@link #batch(java.lang.Runnable) batch} or when
+     * {@link #coalesceUpdates(int) coalescing updates}.
+     */
+    private boolean direct() {
+        return pending == null && maxFps == 0;
+    }
+
+    private void endBatch(boolean outermost) {
+        if (!outermost || pending == null) {
+            // nested or destroyed in the middle of the batch
+            return;
+        }
+        if (decimation != null && decimation.isDirty()) {
+            refreshView();
+        }
+        List<ChartRenderer.Change> changes = pending;
+        pending = null;
+        if (!changes.isEmpty()) {
+            grid = null;
+            final long at = start();
+            renderer.update(this, chart, Collections.unmodifiableList(changes));
+            done(ChartProbe.Operation.APPLY_OPS, changes.size(), at);
+        }
+    }
+
+    final String dataType() {
+        switch (type) {
+            case "Line":
+            case "Radar":
+            case "TimeSeries":
+                return "points";
+            case "Bar":
+                return "bars";
+            default:
+                return "segments";
+        }
+    }
+
+    private void op(ChartRenderer.Change change) {
+        grid = null;
+        final boolean outermost = beginBatch();
+        pending.add(change);
+        endBatch(outermost);
+    }
+
+    private void refreshView() {
+        final int old = decimation.count;
+        final int first = data.decimate(decimation);
+        final int count = decimation.count;
+        for (int i = first; i < count; i++) {
+            Values v = (Values) data.get(decimation.view[i]);
+            if (i < old) {
+                op(ChartRenderer.Change.set(i, v));
+            } else {
+                op(ChartRenderer.Change.add(-1, v));
+            }
+        }
+        if (old > count) {
+            op(ChartRenderer.Change.remove(count, old - count));
+        }
+    }
+
+    private boolean decimated(int index) {
+        if (decimation == null) {
+            return false;
+        }
+        final boolean outermost = beginBatch();
+        decimation.changed(index);
+        endBatch(outermost);
+        return true;
+    }
+
+    final void addValues(int index, Values v, boolean last) {
+        grid = null;
+        if (decimated(index)) {
+            return;
+        }
+        if (direct() && last) {
+            final long at = start();
+            renderer.addValues(this, chart, v);
+            done(ChartProbe.Operation.ADD_DATA, 1, at);
+        } else {
+            op(ChartRenderer.Change.add(last ? -1 : index, v));
+        }
+    }
+
+    final void addSegment(int index, Segment s) {
+        grid = null;
+        if (direct()) {
+            final long at = start();
+            renderer.addSegment(this, chart, index, s);
+            done(ChartProbe.Operation.ADD_DATA, 1, at);
+        } else {
+            op(ChartRenderer.Change.add(index, s));
+        }
+    }
+
+    final void removeData(int index, int count) {
+        grid = null;
+        if (decimated(index)) {
+            return;
+        }
+        if (direct() && count == 1 && (index == 0 || dataSets == null)) {
+            final long at = start();
+            renderer.removeData(this, chart, index);
+            done(ChartProbe.Operation.REMOVE_DATA, 1, at);
+        } else {
+            op(ChartRenderer.Change.remove(index, count));
+        }
+    }
+
+    final void updateValues(int index, Values v) {
+        grid = null;
+        if (decimated(index)) {
+            return;
+        }
+        if (direct()) {
+            final long at = start();
+            renderer.updateValues(this, chart, index, v);
+            done(ChartProbe.Operation.UPDATE_DATA, 1, at);
+        } else {
+            op(ChartRenderer.Change.set(index, v));
+        }
+    }
+
+    final void updateSegment(int index, Segment s) {
+        grid = null;
+        if (direct()) {
+            final long at = start();
+            renderer.updateSegment(this, chart, index, s);
+            done(ChartProbe.Operation.UPDATE_DATA, 1, at);
+        } else {
+            op(ChartRenderer.Change.set(index, s));
+        }
+    }
+
+    /** Adds a listener to the chart. If the listener is also
+     * a {@link ChartHoverListener}, the chart starts to track movements
+     * of the mouse.
      * @param l the listener
      */
     public void addChartListener(ChartListener l) {
-        this.listener = Listeners.add(this.listener, l);
+        this.listeners = Listeners.add(this.listeners, l);
+        if (isRealized() && l instanceof ChartHoverListener) {
+            renderer.track(this, chart, true, hitTest);
+        }
     }
 
     /** Removes a listener from the chart.
      * @param l the listener
      */
     public void removeChartListener(ChartListener l) {
-        this.listener = Listeners.remove(this.listener, l);
+        this.listeners = Listeners.remove(this.listeners, l);
+        if (isRealized() && l instanceof ChartHoverListener) {
+            renderer.track(this, chart, hover(), hitTest);
+        }
     }
 
     /** Access to configuration associated with this graph. The configuration
@@ -162,6 +389,26 @@ public final class Chart<D, C extends Config> {
         return config;
     }
 
+    /** Type of this chart. One of <code>Line</code>, <code>Bar</code>,
+     * <code>Radar</code>, <code>TimeSeries</code>, <code>Pie</code>,
+     * <code>Doughnut</code> or <code>PolarArea</code> depending on
+     * the factory method that created the chart.
+     *
+     * @return the type of the chart
+     */
+    public String getType() {
+        return type;
+    }
+
+    /** Sets of values displayed by this chart.
+     *
+     * @return copy of the sets the chart was created with or <code>null</code>
+     *   for charts of {@link Segment segments}
+     */
+    public Values.Set[] getDataSets() {
+        return dataSets == null ? null : dataSets.clone();
+    }
+
     /** The data displayed by this graph. One can change the data,
      * remove some elements, add new ones. The chart will be updated according
      * to such change.
@@ -171,12 +418,313 @@ public final class Chart<D, C extends Config> {
         return data;
     }
 
+    /** Finds an element in the {@link #getData() data} by its label.
+     * The chart keeps an index of the labels, built on the first call
+     * and then updated as the data change, so the lookup doesn't need to
+     * compare the label with every element. If more elements share the
+     * same label, the index of any of them may be returned.
+     *
+     * @param label the label of {@link Values} or {@link Segment}
+     * @return index into {@link #getData()} or <code>-1</code> if there is
+     *   no element with such label
+     */
+    public int indexOf(String label) {
+        return data.indexOfLabel(label);
+    }
+
+    /** Turns this chart into a sliding window showing at most
+     * <code>capacity</code> elements. The {@link #getData() data} are kept
+     * in a ring buffer of the given size and each {@link #append(java.lang.Object)}
+     * evicts the oldest element once the window is full. The same applies
+     * to all additions to the {@link #getData() data} - adding to a full
+     * window removes the first element, adding at index zero to a full window
+     * is ignored, as the element would be evicted right away, and
+     * {@link #replaceAll(java.util.List)} keeps only the last elements of
+     * the snapshot. If there are more elements already, the oldest ones
+     * are removed.
+     *
+     * @param capacity maximal number of elements to show
+     * @return <code>this</code>
+     * @throws IllegalArgumentException if the capacity isn't positive
+     */
+    public Chart<D, C> slidingWindow(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.window = capacity;
+        data.ensureCapacity(capacity);
+        if (data.size() > capacity) {
+            data.removeRange(0, data.size() - capacity);
+        }
+        return this;
+    }
+
+    /** Limits the number of points the chart renders. The {@link #getData() data}
+     * stay in full resolution, but only the minimal and maximal value of each
+     * data set in each group of neighbouring values is sent to the chart, so at most
+     * <code>maxPoints</code> points are rendered per data set. A good choice
+     * for <code>maxPoints</code> is the width of the canvas in pixels.
+     * Appending to the data recomputes just the last group. Use
+     * {@link #zoom(int, int)} to look at a range of the data in more detail.
+     * Supported only by line, bar and radar charts.
+     *
+     * @param maxPoints maximal number of points to render
+     * @return <code>this</code>
+     * @throws IllegalStateException if the chart is already
+     *   {@link #applyTo(java.lang.String) displayed} or it doesn't display
+     *   {@link Values}
+     * @throws IllegalArgumentException if <code>maxPoints</code> isn't positive
+     */
+    public Chart<D, C> downsample(int maxPoints) {
+        if (maxPoints < 1) {
+            throw new IllegalArgumentException("Max points must be positive: " + maxPoints);
+        }
+        if (dataSets == null) {
+            throw new IllegalStateException("Only values can be downsampled");
+        }
+        if (isRealized()) {
+            throw new IllegalStateException("Already initialized");
+        }
+        this.decimation = new Decimation(maxPoints);
+        return this;
+    }
+
+    /** Displays only a range of the {@link #getData() data}. The range
+     * is {@link #downsample(int) downsampled} again, so it shows more details.
+     *
+     * @param fromIndex index of the first element to show
+     * @param toIndex index after the last element to show
+     * @throws IllegalStateException if the chart isn't {@link #downsample(int) downsampled}
+     * @throws IllegalArgumentException if the range is empty or negative
+     */
+    public void zoom(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex <= fromIndex) {
+            throw new IllegalArgumentException("Wrong range: " + fromIndex + "-" + toIndex);
+        }
+        zoomImpl(fromIndex, toIndex);
+    }
+
+    /** Shows all the {@link #getData() data} again after a {@link #zoom(int, int)}.
+     *
+     * @throws IllegalStateException if the chart isn't {@link #downsample(int) downsampled}
+     */
+    public void resetZoom() {
+        zoomImpl(0, -1);
+    }
+
+    private void zoomImpl(int fromIndex, int toIndex) {
+        if (decimation == null) {
+            throw new IllegalStateException("Only downsampled charts can be zoomed");
+        }
+        final boolean outermost = beginBatch();
+        decimation.range(fromIndex, toIndex);
+        endBatch(outermost);
+    }
+
+    /** Statistics of the {@link #getData() data} in given range. The
+     * first call builds an index which is then kept up to date with every
+     * change of the data, so subsequent queries take <code>O(log n)</code>.
+     * Supported only by line, bar and radar charts.
+     *
+     * @param fromIndex index of the first element
+     * @param toIndex index after the last element
+     * @return minimum, maximum, sum and count of the values in the range
+     * @throws IllegalStateException if the chart doesn't display {@link Values}
+     */
+    public Statistics getStatistics(int fromIndex, int toIndex) {
+        if (dataSets == null) {
+            throw new IllegalStateException("Only values have statistics");
+        }
+        return data.statistics(fromIndex, toIndex);
+    }
+
+    /** Resolves clicks with an index of point positions kept in Java.
+     * By default a click is resolved by the chart in the browser, which checks
+     * every point. With this mode on, positions of the rendered points are
+     * read once after each change of the chart and its animation and put
+     * into a spatial grid.
+     * A click then looks only at the points in its neighbourhood and
+     * delivers the {@link ChartEvent#getIndex() index} of the nearest one
+     * to the {@link ChartListener listeners}. Useful for dense line charts.
+     * Supported only by line and radar charts.
+     *
+     * @return <code>this</code>
+     * @throws IllegalStateException if the chart isn't line or radar chart
+     */
+    public Chart<D, C> spatialHitTest() {
+        if (!"Line".equals(type) && !"Radar".equals(type)) {
+            throw new IllegalStateException("Only line and radar charts: " + type);
+        }
+        this.hitTest = true;
+        if (isRealized()) {
+            renderer.track(this, chart, hover(), true);
+        }
+        return this;
+    }
+
+    /** Reports every call this chart makes to the browser to the
+     * given probe. Useful to find out how much a chart costs, for example
+     * with the help of {@link BridgeHistogram}. Without a probe the chart
+     * doesn't even read the clock.
+     *
+     * @param probe the probe to report to or <code>null</code> to stop reporting
+     * @return <code>this</code>
+     */
+    public Chart<D, C> instrument(ChartProbe probe) {
+        this.probe = probe;
+        return this;
+    }
+
+    private long start() {
+        return probe == null ? 0L : System.nanoTime();
+    }
+
+    private void done(ChartProbe.Operation op, int elements, long start) {
+        final ChartProbe p = probe;
+        if (p != null && start != 0L) {
+            p.bridgeCall(this, op, elements, System.nanoTime() - start);
+        }
+    }
+
+    /** Fixes the value axis to the minimum and maximum of given range
+     * of the {@link #getData() data}. The chart doesn't compute the scale
+     * from its data anymore, it uses
+     * <a href="https://github.com/chartjs/Chart.js/blob/v1.0.2/docs/00-Getting-Started.md">
+     * scaleOverride</a> with values computed by {@link #getStatistics(int, int)}.
+     *
+     * @param fromIndex index of the first element
+     * @param toIndex index after the last element
+     * @param steps number of steps on the axis
+     * @throws IllegalStateException if the chart doesn't display {@link Values}
+     * @throws IllegalArgumentException if <code>steps</code> isn't positive
+     */
+    public void fitScale(int fromIndex, int toIndex, int steps) {
+        if (steps <= 0) {
+            throw new IllegalArgumentException("Steps must be positive: " + steps);
+        }
+        Statistics stats = getStatistics(fromIndex, toIndex);
+        if (stats.getCount() == 0) {
+            return;
+        }
+        final double start = stats.getMin();
+        final double range = stats.getMax() - start;
+        final double width = range > 0 ? range / steps : 1;
+        if (isRealized()) {
+            op(ChartRenderer.Change.scale(steps, width, start));
+        } else {
+            config.set("scaleOverride", true);
+            config.set("scaleSteps", steps);
+            config.set("scaleStepWidth", width);
+            config.set("scaleStartValue", start);
+        }
+    }
+
+    /** Delays repaints of the chart until the next animation frame.
+     * All modifications of the {@link #getData() data} made before the
+     * frame are collected and sent to the chart in a single call followed
+     * by a single repaint, as if they were made in one
+     * {@link #batch(java.lang.Runnable) batch}. Useful when the data
+     * change more often than the browser can repaint.
+     *
+     * @param maxFps maximal number of repaints per second
+     * @return <code>this</code>
+     * @throws IllegalArgumentException if <code>maxFps</code> isn't positive
+     */
+    public Chart<D, C> coalesceUpdates(int maxFps) {
+        if (maxFps <= 0) {
+            throw new IllegalArgumentException("Frame rate must be positive: " + maxFps);
+        }
+        this.maxFps = maxFps;
+        return this;
+    }
+
+    /** Appends new element to the end of the {@link #getData() data}.
+     * When in {@link #slidingWindow(int) sliding window} mode and the window
+     * is full, the oldest element is removed. Both changes are sent to the
+     * chart in a single call followed by a single repaint.
+     *
+     * @param element the element to add
+     */
+    public void append(D element) {
+        boolean outermost = beginBatch();
+        try {
+            if (window > 0 && data.size() >= window) {
+                data.removeRange(0, data.size() - window + 1);
+            }
+            data.add(element);
+        } finally {
+            endBatch(outermost);
+        }
+    }
+
+    /** Replaces the {@link #getData() data} with a new snapshot, sending
+     * only the differences to the chart. The snapshot is compared with
+     * the current data by label and position: elements that are equal
+     * are left alone, changed ones are updated, missing ones removed and
+     * new ones added. When the snapshot is shifted - some elements dropped
+     * from the start and others appended at the end, or the other way
+     * around - the shift is detected and sent as a removal plus additions.
+     * All the changes are sent in a single {@link #batch(java.lang.Runnable) batch},
+     * so a snapshot of two hundred elements with three changed values costs
+     * three updates and one repaint.
+     *
+     * @param snapshot the new content of the {@link #getData() data}
+     */
+    public void replaceAll(List<? extends D> snapshot) {
+        final List<? extends D> newest = window > 0 && snapshot.size() > window
+            ? snapshot.subList(snapshot.size() - window, snapshot.size()) : snapshot;
+        batch(new Runnable() {
+            @Override
+            public void run() {
+                data.patch(newest);
+            }
+        });
+    }
+
+    /** Writes the chart as an SVG document. The document is streamed
+     * to the writer as it is generated, no DOM is built in memory. Series
+     * with more values than the chart is wide are reduced to the extremes of
+     * each pixel column, so the size of the output and the memory needed
+     * don't grow with the number of values. The chart doesn't need to be
+     * {@link #applyTo(java.lang.String) displayed}, nor needs a presenter
+     * to be active. It must not be modified while being written.
+     *
+     * @param out the writer to write to, remains open
+     * @param width width of the image
+     * @param height height of the image
+     * @throws IOException if writing fails
+     * @throws IllegalArgumentException if the size isn't positive
+     */
+    public void writeSvg(Writer out, int width, int height) throws IOException {
+        new SvgExport(this, out, width, height).write();
+    }
+
+    /** Writes the chart as an UTF-8 encoded SVG document. The same as
+     * {@link #writeSvg(java.io.Writer, int, int)}.
+     *
+     * @param out the stream to write to, remains open
+     * @param width width of the image
+     * @param height height of the image
+     * @throws IOException if writing fails
+     * @throws IllegalArgumentException if the size isn't positive
+     */
+    public void writeSvg(OutputStream out, int width, int height) throws IOException {
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+        writeSvg(w, width, height);
+        w.flush();
+    }
+
     /**
      * Destroy the graph and cleanup associated resources.
      */
     public void destroy() {
-        destroy(chart);
+        if (chart != null) {
+            final long at = start();
+            renderer.destroy(this, chart);
+            done(ChartProbe.Operation.DESTROY, 0, at);
+        }
         chart = null;
+        pending = null;
     }
 
     //
@@ -192,6 +740,17 @@ public final class Chart<D, C extends Config> {
     public static Chart<Values, Config> createLine(Values.Set... dataSets) {
         return new Chart<>("Line", Values.class, new Config(), dataSets);
     }
+
+    /** Variant of {@link #createLine(net.java.html.charts.Values.Set...)} using shared configuration.
+     *
+     * @param template the configuration to share with other charts
+     * @param dataSets individual sets of values to display
+     * @return chart object to be {@link #getData() filled with data} and
+     *   {@link #applyTo(java.lang.String) displayed}.
+     */
+    public static Chart<Values, Config> createLine(ConfigTemplate template, Values.Set... dataSets) {
+        return new Chart<>("Line", Values.class, new Config(template), dataSets);
+    }
     
     /** Creates new radar chart.
      * 
@@ -203,6 +762,46 @@ public final class Chart<D, C extends Config> {
         return new Chart<>("Radar", Values.class, new Config(), dataSets);
     }
 
+    /** Variant of {@link #createRadar(net.java.html.charts.Values.Set...)} using shared configuration.
+     *
+     * @param template the configuration to share with other charts
+     * @param dataSets individual sets of values to display
+     * @return chart object to be {@link #getData() filled with data} and
+     *   {@link #applyTo(java.lang.String) displayed}.
+     */
+    public static Chart<Values, Config> createRadar(ConfigTemplate template, Values.Set... dataSets) {
+        return new Chart<>("Radar", Values.class, new Config(template), dataSets);
+    }
+
+    /** Creates new time series chart. Unlike {@link #createLine(net.java.html.charts.Values.Set...) line charts}
+     * it is drawn without <a href="http://www.chartjs.org">Chart.js</a>,
+     * directly onto the canvas, so it stays smooth with hundreds of
+     * thousands of values. The user can zoom by mouse wheel, pan by dragging
+     * and reset the view by double click. The {@link Config configuration}
+     * recognizes <code>scaleOverride</code>, <code>scaleSteps</code>,
+     * <code>scaleStepWidth</code>, <code>scaleStartValue</code>,
+     * <code>datasetFill</code>, <code>datasetStrokeWidth</code> and
+     * the <code>scaleFont*</code> properties.
+     *
+     * @param dataSets individual sets of values to display
+     * @return chart object to be {@link #getData() filled with data} and
+     *   {@link #applyTo(java.lang.String) displayed}.
+     */
+    public static Chart<Values, Config> createTimeSeries(Values.Set... dataSets) {
+        return new Chart<>("TimeSeries", Values.class, new Config(), dataSets);
+    }
+
+    /** Variant of {@link #createTimeSeries(net.java.html.charts.Values.Set...)} using shared configuration.
+     *
+     * @param template the configuration to share with other charts
+     * @param dataSets individual sets of values to display
+     * @return chart object to be {@link #getData() filled with data} and
+     *   {@link #applyTo(java.lang.String) displayed}.
+     */
+    public static Chart<Values, Config> createTimeSeries(ConfigTemplate template, Values.Set... dataSets) {
+        return new Chart<>("TimeSeries", Values.class, new Config(template), dataSets);
+    }
+
     /*
     // line:
     // radar:
@@ -228,6 +827,17 @@ public final class Chart<D, C extends Config> {
     public static Chart<Values,Config> createBar(Values.Set... dataSets) {
         return new Chart<>("Bar", Values.class, new Config(), dataSets);
     }
+
+    /** Variant of {@link #createBar(net.java.html.charts.Values.Set...)} using shared configuration.
+     *
+     * @param template the configuration to share with other charts
+     * @param dataSets individual sets of values to display
+     * @return chart object to be {@link #getData() filled with data} and
+     *   {@link #applyTo(java.lang.String) displayed}.
+     */
+    public static Chart<Values, Config> createBar(ConfigTemplate template, Values.Set... dataSets) {
+        return new Chart<>("Bar", Values.class, new Config(template), dataSets);
+    }
 /*
     // bar:
             {
@@ -249,6 +859,16 @@ public final class Chart<D, C extends Config> {
         return new Chart<>("Pie", Segment.class, new Config(), null);
     }
 
+    /** Variant of {@link #createPie()} using shared configuration.
+     *
+     * @param template the configuration to share with other charts
+     * @return chart object to be {@link #getData() filled with data} and
+     *   {@link #applyTo(java.lang.String) displayed}.
+     */
+    public static Chart<Segment, Config> createPie(ConfigTemplate template) {
+        return new Chart<>("Pie", Segment.class, new Config(template), null);
+    }
+
     /** Creates new doughnut (e.g. {@link #createPie() pie} with missing center) chart.
      * 
      * @return chart object to be {@link #getData() filled with data} and
@@ -258,6 +878,16 @@ public final class Chart<D, C extends Config> {
         return new Chart<>("Doughnut", Segment.class, new Config(), null);
     }
 
+    /** Variant of {@link #createDoughnut()} using shared configuration.
+     *
+     * @param template the configuration to share with other charts
+     * @return chart object to be {@link #getData() filled with data} and
+     *   {@link #applyTo(java.lang.String) displayed}.
+     */
+    public static Chart<Segment, Config> createDoughnut(ConfigTemplate template) {
+        return new Chart<>("Doughnut", Segment.class, new Config(template), null);
+    }
+
     /** Creates new radar (e.g. scaled {@link #createPie() pie}) chart.
      * 
      * @return chart object to be {@link #getData() filled with data} and
@@ -267,6 +897,16 @@ public final class Chart<D, C extends Config> {
         return new Chart<>("PolarArea", Segment.class, new Config(), null);
     }
 
+    /** Variant of {@link #createPolar()} using shared configuration.
+     *
+     * @param template the configuration to share with other charts
+     * @return chart object to be {@link #getData() filled with data} and
+     *   {@link #applyTo(java.lang.String) displayed}.
+     */
+    public static Chart<Segment, Config> createPolar(ConfigTemplate template) {
+        return new Chart<>("PolarArea", Segment.class, new Config(template), null);
+    }
+
     /*
     // polar:
 
@@ -291,123 +931,98 @@ public final class Chart<D, C extends Config> {
     // Implementations
     //
 
-    @JavaScriptBody(args = { "id", "fnName", "graph" }, wait4js = false, javacall = true, body =
-"var self = this;\n" +
-"var canvas = document.getElementById(id);\n" +
-"canvas.addEventListener('mousedown', handleClick, false);\n" +
-"function handleClick(event)\n" +
-"{\n" +
-"  var x = event['x'];\n" +
-"  var y = event['y'];\n" +
-"  x -= canvas['offsetLeft'];\n" +
-"  y -= canvas['offsetTop'];\n" +
-"  var arr = graph[fnName](event);\n" +
-"  var info = [];\n" +
-"  for (var i = 0; i < arr.length; i++) {\n" +
-"    info.push(arr[i]['label']);\n" +
-"    info.push(arr[i]['value']);\n" +
-"  }\n" +
-"  self.@net.java.html.charts.Chart::onClick([Ljava/lang/Object;[Ljava/lang/Object;)" +
-"    ([event['shiftKey'], event['ctrlKey'], event['altKey'], event['metaKey']], info);\n" +
-"  event.stopPropagation();\n" +
-"  event.preventDefault();\n" +
-"}\n"  +
-"graph.canvas = canvas;\n"  +
-"graph.listener = handleClick;\n"
-    )
-    private native void addListener(String id, String fnName, Object graph);
+    private ChartEvent event(Object[] modifierState, Object[] info) {
+        int index = info.length > 3 ? ((Number) info[3]).intValue() : -1;
+        if (decimation != null && index >= 0) {
+            index = index < decimation.count ? decimation.view[index] : -1;
+        }
+        return new ChartEvent(this, modifierState[0], modifierState[1], info, index);
+    }
 
     final void onClick(Object[] modifierState, Object[] info) {
-        ChartEvent ev = new ChartEvent(this, modifierState[0], modifierState[1], info);
-        for (ChartListener l : Listeners.all(this.listener)) {
-            l.chartClick(ev);
+        ChartEvent ev = event(modifierState, info);
+        final ChartListener[] arr = this.listeners;
+        for (int i = 0; i < arr.length; i++) {
+            arr[i].chartClick(ev);
         }
     }
 
-    @JavaScriptBody(args = { "chart", "index", "value", "color", "highlight", "label" }, wait4js = false, body =
-        "chart['addData']({ 'value': value, 'color': color, 'highlight' : highlight, 'label' : label }, index);"
-    )
-    native static void addData(Object chart, int index, double value, String color, String highlight, String label);
+    final void onHit(Object[] modifierState, double x, double y, int width, int height) {
+        HitGrid g = grid;
+        if (g == null || g.width != width || g.height != height) {
+            final long at = start();
+            final double[] arr = renderer.positions(this, chart);
+            if (arr == null) {
+                onClick(modifierState, new Object[0]);
+                return;
+            }
+            done(ChartProbe.Operation.POSITIONS, arr.length / 2, at);
+            double[] xy = Arrays.copyOfRange(arr, 2, arr.length);
+            final int count = dataSets.length == 0 ? 0 : xy.length / 2 / dataSets.length;
+            if (count == 0) {
+                onClick(modifierState, new Object[0]);
+                return;
+            }
+            g = new HitGrid(xy, count, arr[0], width, height);
+            if (arr[1] == 0) {
+                grid = g;
+            }
+        }
+        final int hit = g.nearest(x, y);
+        Object[] info;
+        if (hit < 0) {
+            info = new Object[0];
+        } else {
+            final int set = hit / g.count;
+            final int at = hit % g.count;
+            Values v = (Values) data.get(decimation == null ? at : decimation.view[at]);
+            info = new Object[] { v.label, v.values[set], set, at };
+        }
+        onClick(modifierState, info);
+    }
 
-    @JavaScriptBody(args = { "chart", "data", "label" }, wait4js = false, body =
-        "chart['addData'](data, label);"
-    )
-    native static void addData(Object chart, double[] data, String label);
+    final void onHover(Object[] modifierState, Object[] info) {
+        ChartEvent ev = event(modifierState, info);
+        final ChartListener[] arr = this.listeners;
+        for (int i = 0; i < arr.length; i++) {
+            if (arr[i] instanceof ChartHoverListener) {
+                ((ChartHoverListener) arr[i]).chartHover(ev);
+            }
+        }
+    }
 
-    @JavaScriptBody(args = {"chart", "i"}, wait4js = false, body = "chart['removeData'](i);")
-    native static void removeData(Object chart, int i);
+    final boolean hover() {
+        for (ChartListener l : listeners) {
+            if (l instanceof ChartHoverListener) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-    @JavaScriptBody(args = { "js" }, wait4js = false, body =
-        "if (js['canvas']) js['canvas']['removeEventListener']('mousedown', js['listener']);\n" +
-        "js['destroy']();\n"
-    )
-    native static void destroy(Object js);
-
-    @JavaScriptBody(args = { "id", "type", "config", "labels", "names"}, body =
-        "var canvas = document.getElementById(id);\n" +
-        "var ctx = canvas.getContext('2d');\n" +
-        "var dataSets = [];\n" +
-        "for (var i = 0; i < labels.length; i++) {\n" +
-        "  dataSets.push({\n" +
-        "    'label' : labels[i][0],\n" +
-        "    'fillColor': labels[i][1],\n" +
-        "    'strokeColor': labels[i][2],\n" +
-        "    'highlightFill': labels[i][3],\n" +
-        "    'highlightStroke': labels[i][4],\n" +
-        "    'data': labels[i][5]\n" +
-        "  });\n" +
-        "}\n" +
-        "var data = {\n" +
-        "  'labels' : names,\n" +
-        "  'datasets' : dataSets\n" +
-        "};\n" +
-        "var graph = new Chart(ctx)[type](data, config);\n" +
-        "return graph;\n"
-    )
-    native static Object initLineLike(String id, String type, Object config, Object[] labels, String[] names);
-
-
-    @JavaScriptBody(args = { "type", "id", "config", "names", "values", "colors", "highlights" }, body =
-        "var canvas = document.getElementById(id);\n" +
-        "var ctx = canvas.getContext('2d');\n" +
-        "var data = new Array();\n" +
-        "for (var i = 0; i < values.length; i++) {\n" +
-        "  data.push({\n" +
-        "    'value' : values[i],\n" +
-        "    'color' : colors[i],\n" +
-        "    'highlight' : highlights[i],\n" +
-        "    'label' : names[i]\n" +
-        "  });\n" +
-        "};\n" +
-        "var graph = new Chart(ctx)[type](data, config);\n" +
-        "return graph;\n"
-    )
-    native static Object init360(
-        String type, String id, Object config,
-        String[] names, double[] values,
-        String[] colors, String[] highlights
-    );
-
-    @JavaScriptBody(args = { "js", "data", "title" }, wait4js = false, body =
-        "js['addData'](data, title);"
-    )
-    native static void addData(Object js, Object[] data, String title);
 
-    @JavaScriptBody(args = { "js", "type", "sets", "index", "title", "values" }, wait4js = false, body =
-        "for (var i = 0; i < sets; i++) {\n" +
-        "  js['datasets'][i][type][index]['label'] = title;\n" +
-        "  js['datasets'][i][type][index]['value'] = values[i];\n" +
+    @JavaScriptBody(args = { "js", "interval" }, wait4js = false, javacall = true, body =
+        "var self = this;\n" +
+        "function raf(f) {\n" +
+        "  if (window['requestAnimationFrame']) {\n" +
+        "    window['requestAnimationFrame'](f);\n" +
+        "  } else {\n" +
+        "    setTimeout(function() { f(new Date().getTime()); }, 16);\n" +
+        "  }\n" +
+        "}\n" +
+        "function frame(time) {\n" +
+        "  var last = js['lastFrame'] || 0;\n" +
+        "  if (time - last < interval - 1) {\n" +
+        "    raf(frame);\n" +
+        "    return;\n" +
+        "  }\n" +
+        "  js['lastFrame'] = time;\n" +
+        "  self.@net.java.html.charts.Chart::onFrame()();\n" +
         "}\n" +
-        "js['update']();\n"
+        "raf(frame);\n"
     )
-    native static void updateData(Object js, String type, int sets, int index, String title, double[] data);
+    private native void requestFrame(Object js, double interval);
 
-    @JavaScriptBody(args = { "js", "index", "title", "value" }, wait4js = false, body =
-        "js['segments'][index]['label'] = title;\n" +
-        "js['segments'][index]['value'] = value;\n" +
-        "js['update']();\n"
-    )
-    native static void updateData(Object js, int index, String title, double value);
 
     /*
     static Chart createBar(String id, List<? extends Number> values) {
@@ -439,126 +1054,499 @@ public final class Chart<D, C extends Config> {
     }
     */
 
-    private final class ChartList<T> extends ArrayList<T> {
+    private final class ChartList<T> extends AbstractList<T> implements RandomAccess {
         private final Class<T> elementType;
+        private Object[] ring;
+        private Columns columns;
+        private RangeIndex index;
+        private Map<String, Integer> labels;
+        private boolean duplicates;
+        private int head;
+        private int size;
 
         public ChartList(Class<T> elementType) {
             this.elementType = elementType;
+            if (elementType == Values.class) {
+                this.columns = new Columns(dataSets.length, 10);
+            } else {
+                this.ring = new Object[10];
+            }
+        }
+
+        private int capacity() {
+            return columns != null ? columns.capacity() : ring.length;
+        }
+
+        private int slot(int index) {
+            int at = head + index;
+            final int capacity = capacity();
+            return at >= capacity ? at - capacity : at;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T load(int slot) {
+            return columns != null ? (T) columns.get(slot) : (T) ring[slot];
+        }
+
+        private void store(int slot, T element) {
+            unindexLabel(slot);
+            try {
+                storeImpl(slot, element);
+            } finally {
+                indexLabel(slot);
+            }
+        }
+
+        private void storeImpl(int slot, T element) {
+            if (columns != null) {
+                columns.set(slot, (Values) element);
+                if (index != null) {
+                    index.update(slot, columns.values);
+                }
+            } else {
+                ring[slot] = element;
+            }
+        }
+
+        private void copy(int from, int to) {
+            labels = null;
+            if (columns != null) {
+                columns.copy(from, to);
+                if (index != null) {
+                    index.update(to, columns.values);
+                }
+            } else {
+                ring[to] = ring[from];
+            }
+        }
+
+        private void erase(int slot) {
+            unindexLabel(slot);
+            if (columns != null) {
+                columns.erase(slot);
+                if (index != null) {
+                    index.clear(slot);
+                }
+            } else {
+                ring[slot] = null;
+            }
+        }
+
+        final void ensureCapacity(int capacity) {
+            if (capacity > capacity()) {
+                relayout(capacity);
+            }
+        }
+
+        private void relayout(int capacity) {
+            labels = null;
+            if (columns != null) {
+                columns.relayout(head, size, capacity);
+                if (index != null) {
+                    index = new RangeIndex(columns, 0, size);
+                }
+            } else {
+                Object[] arr = new Object[capacity];
+                for (int i = 0; i < size; i++) {
+                    arr[i] = ring[slot(i)];
+                }
+                ring = arr;
+            }
+            head = 0;
+        }
+
+        final void patch(List<? extends T> snapshot) {
+            final int n = snapshot.size();
+            int removed = 0;
+            int inserted = 0;
+            if (size > 0 && n > 0) {
+                final String first = label(snapshot.get(0));
+                if (!equal(first, labelAt(slot(0)))) {
+                    final int at = indexOfLabel(first);
+                    if (at > 0 && aligned(snapshot, at, 0)) {
+                        removed = at;
+                    } else {
+                        final String current = labelAt(slot(0));
+                        for (int i = 1; i < n; i++) {
+                            if (equal(current, label(snapshot.get(i)))) {
+                                if (aligned(snapshot, 0, i)) {
+                                    inserted = i;
+                                }
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+            if (removed > 0) {
+                removeRange(0, removed);
+            }
+            for (int i = 0; i < inserted; i++) {
+                add(i, snapshot.get(i));
+            }
+            final int common = Math.min(size, n);
+            for (int i = inserted; i < common; i++) {
+                final T element = snapshot.get(i);
+                if (!sameAt(slot(i), element)) {
+                    set(i, element);
+                }
+            }
+            if (size > n) {
+                removeRange(n, size);
+            }
+            for (int i = size; i < n; i++) {
+                add(snapshot.get(i));
+            }
+        }
+
+        /** Do the labels of the current data starting at <code>from</code>
+         * match labels of the snapshot starting at <code>snapshotFrom</code>?
+         */
+        private boolean aligned(List<? extends T> snapshot, int from, int snapshotFrom) {
+            final int len = Math.min(size - from, snapshot.size() - snapshotFrom);
+            for (int i = 0; i < len; i++) {
+                if (!equal(labelAt(slot(from + i)), label(snapshot.get(snapshotFrom + i)))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean sameAt(int slot, T element) {
+            if (columns != null) {
+                Values v = (Values) element;
+                if (!equal(v.label, columns.labels[slot]) || v.values.length != columns.values.length) {
+                    return false;
+                }
+                for (int i = 0; i < v.values.length; i++) {
+                    if (Double.doubleToLongBits(v.values[i]) != Double.doubleToLongBits(columns.values[i][slot])) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            Segment now = (Segment) ring[slot];
+            Segment s = (Segment) element;
+            return equal(s.label, now.label)
+                && Double.doubleToLongBits(s.value) == Double.doubleToLongBits(now.value)
+                && equal(color(s.color), color(now.color))
+                && equal(color(s.highlight), color(now.highlight));
+        }
+
+        private String color(Color c) {
+            return c == null ? null : c.color;
+        }
+
+        private String label(Object element) {
+            return element instanceof Values ? ((Values) element).label : ((Segment) element).label;
+        }
+
+        private boolean equal(String a, String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+
+        private String labelAt(int slot) {
+            if (columns != null) {
+                return columns.labels[slot];
+            }
+            Segment s = (Segment) ring[slot];
+            return s == null ? null : s.label;
+        }
+
+        private void indexLabel(int slot) {
+            if (labels == null) {
+                return;
+            }
+            Integer prev = labels.put(labelAt(slot), slot);
+            if (prev != null && prev != slot) {
+                duplicates = true;
+            }
+        }
+
+        private void unindexLabel(int slot) {
+            if (labels == null) {
+                return;
+            }
+            final String label = labelAt(slot);
+            if (duplicates) {
+                labels = null;
+                return;
+            }
+            Integer at = labels.get(label);
+            if (at != null && at == slot) {
+                labels.remove(label);
+            }
+        }
+
+        final int indexOfLabel(String label) {
+            if (labels == null) {
+                labels = new HashMap<>(size * 2);
+                duplicates = false;
+                for (int i = size - 1; i >= 0; i--) {
+                    indexLabel(slot(i));
+                }
+            }
+            Integer at = labels.get(label);
+            if (at == null) {
+                return -1;
+            }
+            final int index = at - head;
+            return index < 0 ? index + capacity() : index;
+        }
+
+        final Statistics statistics(int fromIndex, int toIndex) {
+            if (fromIndex < 0 || fromIndex > toIndex || toIndex > size) {
+                throw new IndexOutOfBoundsException("Range: " + fromIndex + "-" + toIndex + ", Size: " + size);
+            }
+            if (index == null) {
+                index = new RangeIndex(columns, head, size);
+            }
+            Statistics stats = new Statistics();
+            final int from = slot(fromIndex);
+            final int end = from + toIndex - fromIndex;
+            final int capacity = capacity();
+            if (end <= capacity) {
+                index.query(from, end, stats);
+            } else {
+                index.query(from, capacity, stats);
+                index.query(0, end - capacity, stats);
+            }
+            return stats;
+        }
+
+        /** Label of the element at index without creating the element.
+         */
+        final String labelOf(int index) {
+            return labelAt(slot(index));
+        }
+
+        /** Value of a data set at index without creating the element.
+         */
+        final double valueOf(int index, int set) {
+            return columns.values[set][slot(index)];
+        }
+
+        final int decimate(Decimation d) {
+            return d.refresh(columns, head, size);
+        }
+
+        /** The columns with the first element at slot zero.
+         */
+        final Columns columns() {
+            if (head != 0) {
+                relayout(capacity());
+            }
+            return columns;
+        }
+
+        private void checkIndex(int index, int max) {
+            if (index < 0 || index >= max) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public T get(int index) {
+            checkIndex(index, size);
+            return load(slot(index));
         }
 
         @Override
         public boolean retainAll(Collection<?> c) {
-            if (isRealized()) {
-                throw new UnsupportedOperationException();
-            }
-            return super.retainAll(c);
+            return removeMatching(c, false);
         }
 
         @Override
         public boolean removeAll(Collection<?> c) {
-            if (isRealized()) {
-                throw new UnsupportedOperationException();
+            return removeMatching(c, true);
+        }
+
+        /** Removes the matching elements in a single pass. The kept elements
+         * are moved to their final slots at once and the browser gets one
+         * ranged removal for each run of removed elements.
+         */
+        private boolean removeMatching(Collection<?> c, boolean contained) {
+            final boolean[] drop = new boolean[size];
+            int first = -1;
+            for (int i = 0; i < size; i++) {
+                if (c.contains(get(i)) == contained) {
+                    drop[i] = true;
+                    if (first < 0) {
+                        first = i;
+                    }
+                }
+            }
+            if (first < 0) {
+                return false;
             }
-            return super.removeAll(c);
+            boolean outermost = beginBatch();
+            try {
+                int kept = first;
+                for (int i = first + 1; i < size; i++) {
+                    if (!drop[i]) {
+                        copy(slot(i), slot(kept++));
+                    }
+                }
+                for (int i = kept; i < size; i++) {
+                    erase(slot(i));
+                }
+                size = kept;
+                modCount++;
+                if (isRealized()) {
+                    // index in the browser, where the preceding runs are already removed
+                    int at = first;
+                    int i = first;
+                    while (i < drop.length) {
+                        if (!drop[i]) {
+                            at++;
+                            i++;
+                            continue;
+                        }
+                        int to = i;
+                        while (to < drop.length && drop[to]) {
+                            to++;
+                        }
+                        removeData(at, to - i);
+                        i = to;
+                    }
+                }
+                return true;
+            } finally {
+                endBatch(outermost);
+            }
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends T> c) {
+            return addAll(size(), c);
         }
 
         @Override
         public boolean addAll(int index, Collection<? extends T> c) {
-            if (isRealized()) {
-                throw new UnsupportedOperationException();
+            checkIndex(index, size + 1);
+            ensureCapacity(window > 0 ? Math.min(size + c.size(), window) : size + c.size());
+            boolean outermost = beginBatch();
+            try {
+                for (T e : c) {
+                    final int before = size;
+                    add(index, e);
+                    if (size > before) {
+                        index++;
+                    }
+                }
+                return !c.isEmpty();
+            } finally {
+                endBatch(outermost);
             }
-            return super.addAll(index, c);
         }
 
         @Override
         public void clear() {
-            if (isRealized()) {
-                throw new UnsupportedOperationException();
-            }
-            super.clear();
+            removeRange(0, size);
         }
 
         @Override
-        public boolean remove(Object o) {
+        protected void removeRange(int fromIndex, int toIndex) {
+            if (fromIndex < 0 || fromIndex > toIndex || toIndex > size) {
+                throw new IndexOutOfBoundsException("Range: " + fromIndex + "-" + toIndex + ", Size: " + size);
+            }
+            final int n = toIndex - fromIndex;
+            if (n == 0) {
+                return;
+            }
+            if (fromIndex < size - toIndex) {
+                for (int i = fromIndex - 1; i >= 0; i--) {
+                    copy(slot(i), slot(i + n));
+                }
+                for (int i = 0; i < n; i++) {
+                    erase(slot(i));
+                }
+                head = slot(n);
+            } else {
+                for (int i = fromIndex; i + n < size; i++) {
+                    copy(slot(i + n), slot(i));
+                }
+                for (int i = size - n; i < size; i++) {
+                    erase(slot(i));
+                }
+            }
+            size -= n;
+            modCount++;
             if (isRealized()) {
-                throw new UnsupportedOperationException();
+                removeData(fromIndex, n);
             }
-            return super.remove(o);
         }
 
         @Override
         public void add(int index, T element) {
-            if (isRealized()) {
-                if (elementType == Segment.class) {
-                    Segment s = (Segment) element;
-                    super.add(index, element);
-                    addData(chart, index, s.value, s.color.toString(), s.highlight.toString(), s.label);
+            checkIndex(index, size + 1);
+            if (window > 0 && size >= window) {
+                if (index == 0) {
+                    // would be the oldest element, evicted right away
                     return;
                 }
-                throw new UnsupportedOperationException();
+                boolean outermost = beginBatch();
+                try {
+                    removeRange(0, size - window + 1);
+                    add(index - 1, element);
+                } finally {
+                    endBatch(outermost);
+                }
+                return;
             }
-            super.add(index, element);
-        }
-
-        @Override
-        public boolean add(T e) {
+            if (size == capacity()) {
+                ensureCapacity(size + size / 2 + 1);
+            }
+            if (index < size - index) {
+                head = head == 0 ? capacity() - 1 : head - 1;
+                for (int i = 0; i < index; i++) {
+                    copy(slot(i + 1), slot(i));
+                }
+            } else {
+                for (int i = size; i > index; i--) {
+                    copy(slot(i - 1), slot(i));
+                }
+            }
+            store(slot(index), element);
+            size++;
+            modCount++;
             if (isRealized()) {
-                if (elementType == Values.class) {
-                    Values v = (Values) e;
-                    if (super.add(e)) {
-                        addData(chart, v.values, v.label);
-                        return true;
-                    }
-                    return false;
+                if (elementType == Segment.class) {
+                    addSegment(index, (Segment) element);
                 } else {
-                    add(size(), e);
-                    return true;
+                    addValues(index, (Values) element, index == size() - 1);
                 }
             }
-            return super.add(e);
         }
 
-
+        @Override
+        public boolean add(T e) {
+            add(size(), e);
+            return true;
+        }
 
         @Override
         public T remove(int index) {
-            if (isRealized()) {
-                if (index == 0 || elementType == Segment.class) {
-                    T r = super.remove(index);
-                    removeData(index);
-                    return r;
-                }
-                throw new UnsupportedOperationException();
-            }
-            return super.remove(index);
+            T r = get(index);
+            removeRange(index, index + 1);
+            return r;
         }
 
         @Override
         public T set(int index, T element) {
-            T prev = super.set(index, element);
+            T prev = get(index);
+            store(slot(index), element);
             if (isRealized()) {
                 if (elementType == Values.class) {
-                    Values v = (Values) element;
-                    if (dataSets.length != v.values.length) {
-                        throw new IllegalArgumentException();
-                    }
-                    String dataType;
-                    switch (type) {
-                        case "Line":
-                        case "Radar":
-                            dataType = "points";
-                            break;
-                        case "Bar":
-                            dataType = "bars";
-                            break;
-                        default:
-                            throw new IllegalStateException();
-                    }
-                    updateData(chart, dataType, dataSets.length, index, v.label,  v.values);
+                    updateValues(index, (Values) element);
                 }
                 if (elementType == Segment.class) {
-                    Segment s = (Segment) element;
-                    updateData(chart, index, s.label, s.value);
+                    updateSegment(index, (Segment) element);
                 }
             }
             return prev;
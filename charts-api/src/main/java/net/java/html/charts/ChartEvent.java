@@ -34,31 +34,61 @@ import java.util.EventObject;
 public final class ChartEvent extends EventObject{
     private final boolean ctrl;
     private final boolean shift;
-    private final Object[] info;
+    private final String label;
+    private final double[] values;
+    private final int[] dataSets;
+    private final int index;
 
-    ChartEvent(Chart source, Object shift, Object ctrl, Object[] info) {
+    ChartEvent(Chart source, Object shift, Object ctrl, Object[] info, int index) {
         super(source);
         this.shift = Boolean.TRUE.equals(shift);
         this.ctrl = Boolean.TRUE.equals(ctrl);
-        this.info = info;
+        this.label = info.length > 0 ? (String) info[0] : null;
+        this.values = new double[info.length / 4];
+        this.dataSets = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = ((Number) info[i * 4 + 1]).doubleValue();
+            dataSets[i] = ((Number) info[i * 4 + 2]).intValue();
+        }
+        this.index = index;
     }
 
     /** Name of the object where the action happened.
-     * @return name
+     * @return name or <code>null</code> if the action didn't happen
+     *   on any object
      */
     public String getLabel() {
-        return (String) info[0];
+        return label;
     }
 
     /** Values of the objects at a place where the action happened.
      * @return the array of values
      */
     public double[] getValues() {
-        double[] arr = new double[info.length / 2];
-        for (int i = 0; i < arr.length; i++) {
-            arr[i] = ((Number) info[i * 2 + 1]).doubleValue();
-        }
-        return arr;
+        return values.clone();
+    }
+
+    /** Data sets of the {@link #getValues() values}. For each value
+     * there is an index of the {@link Values.Set data set} it belongs to.
+     * Segments belong to data set <code>0</code>.
+     * @return the array of data set indices
+     */
+    public int[] getDataSets() {
+        return dataSets.clone();
+    }
+
+    /** Index of the element where the action happened. Points
+     * directly into the {@link Chart#getData() data} of the chart,
+     * so the element can be accessed without searching for its
+     * {@link #getLabel() label}:
+     * <pre>
+     * chart.getData().get(ev.getIndex())
+     * </pre>
+     * @return index into {@link Chart#getData()} or <code>-1</code> if the
+     *   action didn't happen on any element
+     */
+    public int getIndex() {
+        return index;
     }
 
     /** Shift key indication. What the shift key pressed when the event
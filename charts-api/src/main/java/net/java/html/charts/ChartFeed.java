@@ -0,0 +1,191 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.netbeans.html.boot.spi.Fn;
+
+/** Thread-safe way to feed a {@link Chart} with data. Unlike the
+ * {@link Chart} itself, which has to be accessed only from the thread
+ * of its presenter, the {@link #offer(java.lang.Object)} method may be
+ * called from any thread:
+ * <pre>
+ * ChartFeed&lt;Values&gt; feed = ChartFeed.create(chart, 1000, ChartFeed.Overflow.DROP_OLDEST);
+ * // later from a worker thread
+ * feed.offer(new Values("Now", measure()));
+ * </pre>
+ * The elements are kept in a lock-free queue and moved to the chart on the
+ * presenter thread. All the elements that arrive before the presenter gets
+ * to them are {@link Chart#append(java.lang.Object) appended} in a single
+ * {@link Chart#batch(java.lang.Runnable) batch}. Producers never wait for
+ * the presenter; when the queue is full, the {@link Overflow overflow policy}
+ * decides what happens.
+ *
+ * @param <D> type of data in the chart
+ */
+public final class ChartFeed<D> {
+    /** What to do when a {@link ChartFeed} has more elements waiting
+     * for the presenter than its capacity.
+     */
+    public enum Overflow {
+        /** Removes the oldest waiting element to make room for the new one.
+         */
+        DROP_OLDEST,
+        /** Rejects the new element, {@link ChartFeed#offer(java.lang.Object)}
+         * returns <code>false</code> and the producer may slow down.
+         */
+        REJECT
+    }
+
+    private final Chart<D, ?> chart;
+    private final Fn.Presenter presenter;
+    private final FeedQueue<D> queue;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private long delivered;
+    private Runnable drained;
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    private ChartFeed(Chart<D, ?> chart, Fn.Presenter presenter, int capacity, Overflow overflow) {
+        this.chart = chart;
+        this.presenter = presenter;
+        this.queue = new FeedQueue<>(capacity, overflow == Overflow.DROP_OLDEST);
+    }
+
+    /** Creates a feed for given chart. Has to be called from the thread
+     * of the presenter the chart is displayed by.
+     *
+     * @param <D> type of data in the chart
+     * @param chart the chart to feed
+     * @param capacity maximal number of elements waiting for the presenter
+     * @param overflow what to do when there are too many waiting elements
+     * @return new feed
+     * @throws IllegalArgumentException if the capacity isn't positive
+     * @throws IllegalStateException if there is no presenter able to execute
+     *   code on its thread
+     */
+    public static <D> ChartFeed<D> create(Chart<D, ?> chart, int capacity, Overflow overflow) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        Fn.Presenter p = Fn.activePresenter();
+        if (!(p instanceof Executor)) {
+            throw new IllegalStateException("Presenter cannot execute tasks: " + p);
+        }
+        return new ChartFeed<>(chart, p, capacity, overflow);
+    }
+
+    /** Adds new element to the chart. Can be called from any thread and
+     * never blocks. The element is appended to the chart later on the
+     * thread of its presenter.
+     *
+     * @param element the element to add
+     * @return <code>false</code> if the element was rejected because there are
+     *   too many elements waiting and the overflow policy is {@link Overflow#REJECT}
+     */
+    public boolean offer(D element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        boolean accepted = queue.offer(element);
+        if (accepted && scheduled.compareAndSet(false, true)) {
+            execute(drain);
+        }
+        return accepted;
+    }
+
+    /** Number of elements waiting for the presenter.
+     * @return approximate count of the elements not yet sent to the chart
+     */
+    public int getPending() {
+        return queue.size();
+    }
+
+    /** Number of elements that were dropped or rejected by the
+     * {@link Overflow overflow policy}.
+     *
+     * @return count of lost elements
+     */
+    public long getDropped() {
+        return queue.dropped();
+    }
+
+    final void execute(Runnable task) {
+        ((Executor) presenter).execute(task);
+    }
+
+    /** Registers code to run on the presenter thread whenever elements
+     * are sent to the chart.
+     */
+    final void onDrained(Runnable r) {
+        this.drained = r;
+    }
+
+    /** Number of elements already sent to the chart.
+     */
+    final long delivered() {
+        return delivered;
+    }
+
+    final void drain() {
+        scheduled.set(false);
+        final List<D> arrived = new ArrayList<>();
+        if (queue.drainTo(arrived) == 0) {
+            return;
+        }
+        final Closeable active = Fn.activate(presenter);
+        try {
+            chart.batch(new Runnable() {
+                @Override
+                public void run() {
+                    for (D element : arrived) {
+                        chart.append(element);
+                    }
+                }
+            });
+        } finally {
+            try {
+                active.close();
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+        delivered += arrived.size();
+        if (drained != null) {
+            drained.run();
+        }
+    }
+}
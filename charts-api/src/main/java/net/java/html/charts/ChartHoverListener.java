@@ -0,0 +1,44 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+/** Listener interested in movements of the mouse over the {@link Chart}.
+ * Register it via {@link Chart#addChartListener(net.java.html.charts.ChartListener)}
+ * like any other {@link ChartListener}. The movements are throttled
+ * in the browser: the listener is called at most once per animation frame
+ * and only when the elements under the mouse change.
+ */
+public interface ChartHoverListener extends ChartListener {
+    /** Delivered when the mouse moves over different elements of the chart.
+     * When the mouse leaves all the elements, the event has no
+     * {@link ChartEvent#getLabel() label} and its
+     * {@link ChartEvent#getIndex() index} is <code>-1</code>.
+     *
+     * @param ev event describing the elements under the mouse
+     */
+    public void chartHover(ChartEvent ev);
+}
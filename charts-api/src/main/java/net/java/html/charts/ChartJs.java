@@ -0,0 +1,453 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.List;
+import net.java.html.js.JavaScriptBody;
+import net.java.html.js.JavaScriptResource;
+
+/** Renders charts with the bundled <a href="http://www.chartjs.org">Chart.js</a>
+ * library. Used unless another {@link ChartRenderer} is selected.
+ */
+@JavaScriptResource("Chart.min.js")
+final class ChartJs extends ChartRenderer {
+    static final ChartJs DEFAULT = new ChartJs();
+
+    /** Definition of <code>recolor(segment, color, highlight)</code> JavaScript
+     * function changing colors of a drawn segment. Chart.js restores
+     * the color saved at creation when the mouse leaves the segment, so
+     * the saved copy is updated as well.
+     */
+    private static final String RECOLOR =
+        "function recolor(seg, color, highlight) {\n" +
+        "  if (!color) return;\n" +
+        "  var arr = seg['_saved'] ? [ seg, seg['_saved'] ] : [ seg ];\n" +
+        "  for (var k = 0; k < arr.length; k++) {\n" +
+        "    arr[k]['fillColor'] = color;\n" +
+        "    arr[k]['highlightColor'] = highlight || color;\n" +
+        "  }\n" +
+        "}\n";
+
+    private ChartJs() {
+    }
+
+    @Override
+    protected boolean accepts(String type) {
+        switch (type) {
+            case "Line":
+            case "Bar":
+            case "Radar":
+            case "Pie":
+            case "Doughnut":
+            case "PolarArea":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    protected Object create(Chart<?, ?> chart, String id, Object config) {
+        final String type = chart.type();
+        final Values.Set[] dataSets = chart.dataSets();
+        String clickLocationFn;
+        Object graph;
+        if (dataSets != null) {
+            Columns columns = chart.displayedColumns();
+            int count = chart.displayedCount();
+            Object[] labels = new Object[dataSets.length];
+
+            for (int i = 0; i < dataSets.length; i++) {
+                final Object[] clone = dataSets[i].raw.clone();
+                clone[5] = Doubles.transfer(columns.values[i], count);
+                labels[i] = clone;
+            }
+            switch (type) {
+                case "Line":
+                    clickLocationFn = "getPointsAtEvent";
+                    break;
+                case "Bar":
+                    clickLocationFn = "getBarsAtEvent";
+                    break;
+                case "Radar":
+                    clickLocationFn = "getPointsAtEvent";
+                    break;
+                default:
+                    throw new IllegalStateException(type);
+            }
+            graph = initLineLike(id, type, config, labels, columns.labels, count);
+        } else {
+            Segment[] arr = ((List<?>) chart.getData()).toArray(new Segment[0]);
+            double[] values = new double[arr.length];
+            String[] labels = new String[arr.length];
+            String[] colors = new String[arr.length];
+            String[] highlights = new String[arr.length];
+            for (int i = 0; i < arr.length; i++) {
+                values[i] = arr[i].value;
+                labels[i] = arr[i].label;
+                colors[i] = arr[i].color.color;
+                highlights[i] = arr[i].highlight.color;
+            }
+            graph = init360(type, id, config, labels, Doubles.transfer(values, values.length), colors, highlights);
+            clickLocationFn = "getSegmentsAtEvent";
+        }
+        addListener(chart, id, clickLocationFn, graph, chart.hover(), chart.isHitTest());
+        return graph;
+    }
+
+    @Override
+    protected void update(Chart<?, ?> chart, Object graph, List<Change> changes) {
+        applyOps(graph, chart.dataType(), Change.encode(changes));
+    }
+
+    @Override
+    protected void destroy(Chart<?, ?> chart, Object graph) {
+        destroy(graph);
+    }
+
+    @Override
+    protected double[] positions(Chart<?, ?> chart, Object graph) {
+        Object[] arr = positions(graph);
+        double[] xy = new double[arr.length];
+        for (int i = 0; i < xy.length; i++) {
+            xy[i] = ((Number) arr[i]).doubleValue();
+        }
+        return xy;
+    }
+
+    @Override
+    protected void track(Chart<?, ?> chart, Object graph, boolean hover, boolean hitTest) {
+        track(graph, hover, hitTest);
+    }
+
+    @Override
+    void addValues(Chart<?, ?> chart, Object graph, Values v) {
+        addData(graph, Doubles.transfer(v.values, v.values.length), v.values.length, v.label);
+    }
+
+    @Override
+    void addSegment(Chart<?, ?> chart, Object graph, int index, Segment s) {
+        addData(graph, index, s.value, s.color.toString(), s.highlight.toString(), s.label);
+    }
+
+    @Override
+    void removeData(Chart<?, ?> chart, Object graph, int index) {
+        removeData(graph, index);
+    }
+
+    @Override
+    void updateValues(Chart<?, ?> chart, Object graph, int index, Values v) {
+        updateData(graph, chart.dataType(), chart.dataSets().length, index, v.label, v.values);
+    }
+
+    @Override
+    void updateSegment(Chart<?, ?> chart, Object graph, int index, Segment s) {
+        updateData(graph, index, s.label, s.value, s.color.color, s.highlight.color);
+    }
+
+    @JavaScriptBody(args = { "self", "id", "fnName", "graph", "hover", "hitTest" }, wait4js = false, javacall = true, body =
+"var canvas = document.getElementById(id);\n" +
+"canvas.addEventListener('mousedown', handleClick, false);\n" +
+"canvas.addEventListener('mousemove', handleMove, false);\n" +
+"canvas.addEventListener('mouseout', handleMove, false);\n" +
+"function describe(arr) {\n" +
+"  var info = [];\n" +
+"  var sets = graph['datasets'];\n" +
+"  for (var i = 0; i < arr.length; i++) {\n" +
+"    var set = 0;\n" +
+"    var at = -1;\n" +
+"    if (sets) {\n" +
+"      for (var j = 0; j < sets.length; j++) {\n" +
+"        at = (sets[j]['points'] || sets[j]['bars']).indexOf(arr[i]);\n" +
+"        if (at >= 0) {\n" +
+"          set = j;\n" +
+"          break;\n" +
+"        }\n" +
+"      }\n" +
+"    } else {\n" +
+"      at = graph['segments'].indexOf(arr[i]);\n" +
+"    }\n" +
+"    info.push(arr[i]['label'], arr[i]['value'], set, at);\n" +
+"  }\n" +
+"  return info;\n" +
+"}\n" +
+"function modifiers(event) {\n" +
+"  return [event['shiftKey'], event['ctrlKey'], event['altKey'], event['metaKey']];\n" +
+"}\n" +
+"function handleClick(event)\n" +
+"{\n" +
+"  if (graph['hitTest']) {\n" +
+"    var pos = Chart['helpers']['getRelativePosition'](event);\n" +
+"    self.@net.java.html.charts.Chart::onHit([Ljava/lang/Object;DDII)" +
+"      (modifiers(event), pos['x'], pos['y'], graph['chart']['width'], graph['chart']['height']);\n" +
+"    event.stopPropagation();\n" +
+"    event.preventDefault();\n" +
+"    return;\n" +
+"  }\n" +
+"  var x = event['x'];\n" +
+"  var y = event['y'];\n" +
+"  x -= canvas['offsetLeft'];\n" +
+"  y -= canvas['offsetTop'];\n" +
+"  var arr = graph[fnName](event);\n" +
+"  self.@net.java.html.charts.Chart::onClick([Ljava/lang/Object;[Ljava/lang/Object;)" +
+"    (modifiers(event), describe(arr));\n" +
+"  event.stopPropagation();\n" +
+"  event.preventDefault();\n" +
+"}\n"  +
+"var lastMove = null;\n" +
+"var hovered = [];\n" +
+"function handleMove(event) {\n" +
+"  if (!graph['hover']) {\n" +
+"    return;\n" +
+"  }\n" +
+"  var scheduled = lastMove !== null;\n" +
+"  lastMove = event;\n" +
+"  if (scheduled) {\n" +
+"    return;\n" +
+"  }\n" +
+"  var raf = window['requestAnimationFrame'];\n" +
+"  if (raf) {\n" +
+"    raf.call(window, deliverMove);\n" +
+"  } else {\n" +
+"    setTimeout(deliverMove, 16);\n" +
+"  }\n" +
+"}\n" +
+"function deliverMove() {\n" +
+"  var event = lastMove;\n" +
+"  lastMove = null;\n" +
+"  var arr = event['type'] === 'mouseout' ? [] : graph[fnName](event);\n" +
+"  var same = arr.length === hovered.length;\n" +
+"  for (var i = 0; same && i < arr.length; i++) {\n" +
+"    same = arr[i] === hovered[i];\n" +
+"  }\n" +
+"  if (same) {\n" +
+"    return;\n" +
+"  }\n" +
+"  hovered = arr;\n" +
+"  self.@net.java.html.charts.Chart::onHover([Ljava/lang/Object;[Ljava/lang/Object;)" +
+"    (modifiers(event), describe(arr));\n" +
+"}\n" +
+"graph.canvas = canvas;\n"  +
+"graph.listener = handleClick;\n" +
+"graph.moveListener = handleMove;\n" +
+"graph['hover'] = hover;\n" +
+"graph['hitTest'] = hitTest;\n"
+    )
+    private static native void addListener(Chart<?, ?> self, String id, String fnName, Object graph, boolean hover, boolean hitTest);
+
+    @JavaScriptBody(args = { "graph", "hover", "hitTest" }, wait4js = false, body =
+        "graph['hover'] = hover;\n" +
+        "graph['hitTest'] = hitTest;\n"
+    )
+    private static native void track(Object graph, boolean hover, boolean hitTest);
+
+    @JavaScriptBody(args = { "graph" }, body =
+        "var o = graph['options'];\n" +
+        "var moving = 0;\n" +
+        "var anims = Chart['animationService'] ? Chart['animationService']['animations'] : [];\n" +
+        "for (var k = 0; k < anims.length; k++) {\n" +
+        "  if (anims[k]['chartInstance'] === graph) {\n" +
+        "    moving = 1;\n" +
+        "  }\n" +
+        "}\n" +
+        "var xy = [Math.max(1, o['pointHitDetectionRadius'] + o['pointDotRadius']), moving];\n" +
+        "var sets = graph['datasets'];\n" +
+        "for (var j = 0; j < sets.length; j++) {\n" +
+        "  var points = sets[j]['points'];\n" +
+        "  for (var i = 0; i < points.length; i++) {\n" +
+        "    xy.push(points[i]['x'], points[i]['y']);\n" +
+        "  }\n" +
+        "}\n" +
+        "return xy;\n"
+    )
+    private static native Object[] positions(Object graph);
+
+    @JavaScriptBody(args = { "chart", "index", "value", "color", "highlight", "label" }, wait4js = false, body =
+        "chart['addData']({ 'value': value, 'color': color, 'highlight' : highlight, 'label' : label }, index);"
+    )
+    native static void addData(Object chart, int index, double value, String color, String highlight, String label);
+
+    @JavaScriptBody(args = { "chart", "data", "count", "label" }, wait4js = false, body = Doubles.DECODE +
+        "chart['addData'](decode(data, count), label);"
+    )
+    native static void addData(Object chart, Object data, int count, String label);
+
+    @JavaScriptBody(args = {"chart", "i"}, wait4js = false, body = "chart['removeData'](i);")
+    native static void removeData(Object chart, int i);
+
+    @JavaScriptBody(args = { "js" }, wait4js = false, body =
+        "if (js['canvas']) {\n" +
+        "  js['canvas']['removeEventListener']('mousedown', js['listener']);\n" +
+        "  js['canvas']['removeEventListener']('mousemove', js['moveListener']);\n" +
+        "  js['canvas']['removeEventListener']('mouseout', js['moveListener']);\n" +
+        "}\n" +
+        "js['destroy']();\n"
+    )
+    native static void destroy(Object js);
+
+    @JavaScriptBody(args = { "id", "type", "config", "labels", "names", "count" }, body = Doubles.DECODE +
+        "var canvas = document.getElementById(id);\n" +
+        "var ctx = canvas.getContext('2d');\n" +
+        "var dataSets = [];\n" +
+        "for (var i = 0; i < labels.length; i++) {\n" +
+        "  dataSets.push({\n" +
+        "    'label' : labels[i][0],\n" +
+        "    'fillColor': labels[i][1],\n" +
+        "    'strokeColor': labels[i][2],\n" +
+        "    'highlightFill': labels[i][3],\n" +
+        "    'highlightStroke': labels[i][4],\n" +
+        "    'data': decode(labels[i][5], count)\n" +
+        "  });\n" +
+        "}\n" +
+        "var data = {\n" +
+        "  'labels' : Array.prototype.slice.call(names, 0, count),\n" +
+        "  'datasets' : dataSets\n" +
+        "};\n" +
+        "var graph = new Chart(ctx)[type](data, config);\n" +
+        "return graph;\n"
+    )
+    native static Object initLineLike(String id, String type, Object config, Object[] labels, String[] names, int count);
+
+
+    @JavaScriptBody(args = { "type", "id", "config", "names", "values", "colors", "highlights" }, body = Doubles.DECODE +
+        "var canvas = document.getElementById(id);\n" +
+        "var ctx = canvas.getContext('2d');\n" +
+        "values = decode(values, names.length);\n" +
+        "var data = new Array();\n" +
+        "for (var i = 0; i < values.length; i++) {\n" +
+        "  data.push({\n" +
+        "    'value' : values[i],\n" +
+        "    'color' : colors[i],\n" +
+        "    'highlight' : highlights[i],\n" +
+        "    'label' : names[i]\n" +
+        "  });\n" +
+        "};\n" +
+        "var graph = new Chart(ctx)[type](data, config);\n" +
+        "return graph;\n"
+    )
+    native static Object init360(
+        String type, String id, Object config,
+        String[] names, Object values,
+        String[] colors, String[] highlights
+    );
+
+    @JavaScriptBody(args = { "js", "data", "title" }, wait4js = false, body =
+        "js['addData'](data, title);"
+    )
+    native static void addData(Object js, Object[] data, String title);
+
+    @JavaScriptBody(args = { "js", "type", "sets", "index", "title", "values" }, wait4js = false, body =
+        "for (var i = 0; i < sets; i++) {\n" +
+        "  js['datasets'][i][type][index]['label'] = title;\n" +
+        "  js['datasets'][i][type][index]['value'] = values[i];\n" +
+        "}\n" +
+        "js['update']();\n"
+    )
+    native static void updateData(Object js, String type, int sets, int index, String title, double[] data);
+
+    @JavaScriptBody(args = { "js", "index", "title", "value", "color", "highlight" }, wait4js = false, body = RECOLOR +
+        "js['segments'][index]['label'] = title;\n" +
+        "js['segments'][index]['value'] = value;\n" +
+        "recolor(js['segments'][index], color, highlight);\n" +
+        "js['update']();\n"
+    )
+    native static void updateData(Object js, int index, String title, double value, String color, String highlight);
+
+    @JavaScriptBody(args = { "js", "type", "ops" }, wait4js = false, body = RECOLOR +
+        "var segments = type === 'segments';\n" +
+        "function columns() {\n" +
+        "  if (segments) return [ js['segments'] ];\n" +
+        "  var scale = js['scale'];\n" +
+        "  var arr = [ scale['xLabels'] || scale['labels'] ];\n" +
+        "  for (var j = 0; j < js['datasets'].length; j++) {\n" +
+        "    arr.push(js['datasets'][j][type]);\n" +
+        "  }\n" +
+        "  return arr;\n" +
+        "}\n" +
+        "var update = js['update'];\n" +
+        "js['update'] = function() {};\n" +
+        "try {\n" +
+        "  for (var i = 0; i < ops.length; i += 6) {\n" +
+        "    var index = ops[i + 1];\n" +
+        "    var label = ops[i + 2];\n" +
+        "    var data = ops[i + 3];\n" +
+        "    switch (ops[i]) {\n" +
+        "      case 'add':\n" +
+        "        if (segments) {\n" +
+        "          js['addData']({ 'value': data, 'color': ops[i + 4], 'highlight' : ops[i + 5], 'label' : label }, js['segments'].length, true);\n" +
+        "        } else {\n" +
+        "          js['addData'](data, label);\n" +
+        "        }\n" +
+        "        if (index >= 0) {\n" +
+        "          var arr = columns();\n" +
+        "          for (var j = 0; j < arr.length; j++) {\n" +
+        "            if (index < arr[j].length - 1) arr[j].splice(index, 0, arr[j].pop());\n" +
+        "          }\n" +
+        "        }\n" +
+        "        break;\n" +
+        "      case 'remove':\n" +
+        "        var arr = columns();\n" +
+        "        for (var j = 0; j < arr.length; j++) {\n" +
+        "          arr[j].splice(index, data);\n" +
+        "        }\n" +
+        "        if (js['scale'] && !segments) js['scale']['valuesCount'] -= data;\n" +
+        "        break;\n" +
+        "      case 'scale':\n" +
+        "        var o = js['options'];\n" +
+        "        o['scaleOverride'] = true;\n" +
+        "        o['scaleSteps'] = index;\n" +
+        "        o['scaleStepWidth'] = data[0];\n" +
+        "        o['scaleStartValue'] = data[1];\n" +
+        "        var s = js['scale'];\n" +
+        "        s['calculateYRange'] = s['calculateRange'] = function() {};\n" +
+        "        s['steps'] = index;\n" +
+        "        s['stepValue'] = data[0];\n" +
+        "        s['min'] = data[1];\n" +
+        "        s['max'] = data[1] + index * data[0];\n" +
+        "        break;\n" +
+        "      case 'set':\n" +
+        "        if (segments) {\n" +
+        "          js['segments'][index]['label'] = label;\n" +
+        "          js['segments'][index]['value'] = data;\n" +
+        "          recolor(js['segments'][index], ops[i + 4], ops[i + 5]);\n" +
+        "        } else {\n" +
+        "          for (var j = 0; j < js['datasets'].length; j++) {\n" +
+        "            js['datasets'][j][type][index]['label'] = label;\n" +
+        "            js['datasets'][j][type][index]['value'] = data[j];\n" +
+        "          }\n" +
+        "        }\n" +
+        "        break;\n" +
+        "    }\n" +
+        "  }\n" +
+        "} finally {\n" +
+        "  js['update'] = update;\n" +
+        "}\n" +
+        "js['reflow']();\n" +
+        "js['update']();\n"
+    )
+    native static void applyOps(Object js, String type, Object[] ops);
+}
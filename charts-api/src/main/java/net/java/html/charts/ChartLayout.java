@@ -0,0 +1,301 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Locale;
+
+/** Geometry of a chart drawn outside of the browser. Computes the value
+ * axis, the plot area and the spacing of labels the way
+ * <a href="http://www.chartjs.org">Chart.js</a> does, so a chart exported by
+ * {@link Chart#writeSvg(java.io.Writer, int, int)} and the same chart drawn
+ * by another renderer share their scale and layout. Only the widths of
+ * texts depend on the renderer, they are supplied by a {@link Measure}.
+ * <p>
+ * The scale honors <code>scaleOverride</code> of the {@link Config}, otherwise
+ * it is computed to round numbers covering the values.
+ */
+public final class ChartLayout {
+    /** Measures texts as the renderer draws them.
+     */
+    public interface Measure {
+        /** Width of a text.
+         * @param text the text
+         * @return width in pixels
+         */
+        double width(String text);
+    }
+
+    private static final int PADDING = 5;
+
+    private final Chart<?, ?> chart;
+    private final Measure measure;
+    private final int width;
+    private final int height;
+    private final int fontSize;
+    private final boolean centered;
+    private final double start;
+    private final double stepWidth;
+    private final int steps;
+    private final double left;
+    private final double top;
+    private final double bottom;
+    private int labelInterval;
+
+    private ChartLayout(Chart<?, ?> chart, int width, int height, double min, double max, Measure measure) {
+        final Config config = chart.getConfig();
+        this.chart = chart;
+        this.measure = measure;
+        this.width = width;
+        this.height = height;
+        this.fontSize = (int) config.number("scaleFontSize", 12);
+        this.centered = "Bar".equals(chart.getType());
+        final boolean showScale = config.flag("showScale", true);
+        this.top = PADDING + fontSize / 2.0;
+        this.bottom = Math.max(top + 1, height - PADDING - (showScale ? fontSize + 8 : 0));
+
+        final double steps = Math.floor(config.number("scaleSteps", 1));
+        final double stepWidth = config.number("scaleStepWidth", 1);
+        if (config.flag("scaleOverride", false) && steps > 0 && stepWidth > 0) {
+            this.start = config.number("scaleStartValue", 0);
+            this.stepWidth = stepWidth;
+            this.steps = (int) steps;
+        } else {
+            final boolean beginAtZero;
+            switch (chart.getType()) {
+                case "Line":
+                case "TimeSeries":
+                    beginAtZero = config.flag("scaleBeginAtZero", false);
+                    break;
+                case "Bar":
+                    beginAtZero = config.flag("scaleBeginAtZero", true);
+                    break;
+                default:
+                    beginAtZero = true;
+            }
+            if (!(min <= max)) {
+                min = 0;
+                max = 1;
+            }
+            if (beginAtZero) {
+                min = Math.min(0, min);
+                max = Math.max(0, max);
+            }
+            if (min == max) {
+                min -= 0.5;
+                max += 0.5;
+            }
+            final int maxSteps = Math.max(1, (int) ((bottom - top) / (fontSize * 1.5)));
+            final double rough = (max - min) / maxSteps;
+            final double magnitude = Math.pow(10, Math.floor(Math.log10(rough)));
+            double step = magnitude;
+            for (double nice : new double[] { 1, 2, 5, 10 }) {
+                step = nice * magnitude;
+                if (step >= rough) {
+                    break;
+                }
+            }
+            this.start = Math.floor(min / step) * step;
+            this.stepWidth = step;
+            this.steps = Math.max(1, (int) Math.ceil((max - start) / step - 1e-9));
+        }
+
+        double labelWidth = 0;
+        if (showScale && config.flag("scaleShowLabels", true)) {
+            for (int i = 0; i <= this.steps; i++) {
+                labelWidth = Math.max(labelWidth, measure.width(getLabel(i)));
+            }
+            labelWidth += 10;
+        }
+        this.left = PADDING + labelWidth;
+    }
+
+    /** Computes the layout of a chart.
+     *
+     * @param chart the chart
+     * @param width width of the whole chart in pixels
+     * @param height height of the whole chart in pixels
+     * @param min the smallest value shown by the chart
+     * @param max the biggest value shown by the chart
+     * @param measure measures texts of the renderer
+     * @return the layout
+     * @throws IllegalArgumentException if the size isn't positive
+     */
+    public static ChartLayout create(Chart<?, ?> chart, int width, int height, double min, double max, Measure measure) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Size: " + width + "x" + height);
+        }
+        return new ChartLayout(chart, width, height, min, max, measure);
+    }
+
+    /** Size of the font of all the labels.
+     * @return <code>scaleFontSize</code> of the configuration
+     */
+    public int getFontSize() {
+        return fontSize;
+    }
+
+    /** The lowest value on the value axis.
+     * @return value at step <code>0</code>
+     */
+    public double getStart() {
+        return start;
+    }
+
+    /** Difference between two neighbouring steps of the value axis.
+     * @return width of a step
+     */
+    public double getStepWidth() {
+        return stepWidth;
+    }
+
+    /** Number of steps of the value axis. There is one label more
+     * than there are steps.
+     * @return the number of steps, at least one
+     */
+    public int getSteps() {
+        return steps;
+    }
+
+    /** The highest value on the value axis.
+     * @return value at the last step
+     */
+    public double getEnd() {
+        return start + steps * stepWidth;
+    }
+
+    /** Label of a step on the value axis.
+     * @param step the step from <code>0</code> to {@link #getSteps()}
+     * @return the value of the step formatted without useless digits
+     */
+    public String getLabel(int step) {
+        double v = start + step * stepWidth;
+        if (Math.abs(v) < stepWidth * 1e-9) {
+            v = 0;
+        }
+        if (v == Math.rint(v) && Math.abs(v) < 1e15) {
+            return Long.toString((long) v);
+        }
+        final int digits = Math.min(10, Math.max(0, (int) -Math.floor(Math.log10(stepWidth)) + 1));
+        String s = String.format(Locale.ENGLISH, "%." + digits + "f", v);
+        if (s.indexOf('.') >= 0) {
+            s = s.replaceAll("0+$", "").replaceAll("\\.$", "");
+        }
+        return s;
+    }
+
+    /** Relative position of a value on the value axis.
+     * @param value the value
+     * @return <code>0</code> for the start, <code>1</code> for the end of the axis
+     */
+    public double ratio(double value) {
+        return (value - start) / (steps * stepWidth);
+    }
+
+    /** Left edge of the plot area, right of the labels of the value axis.
+     * @return x coordinate in pixels
+     */
+    public double getPlotX() {
+        return left;
+    }
+
+    /** Top edge of the plot area.
+     * @return y coordinate in pixels
+     */
+    public double getPlotY() {
+        return top;
+    }
+
+    /** Width of the plot area.
+     * @return width in pixels
+     */
+    public double getPlotWidth() {
+        return Math.max(1, width - PADDING - left);
+    }
+
+    /** Height of the plot area. The labels of the elements are below it.
+     * @return height in pixels
+     */
+    public double getPlotHeight() {
+        return bottom - top;
+    }
+
+    /** Horizontal position of an element in the plot area. Bars are
+     * centered in their slot, points of lines span the whole width.
+     * @param index index of the element in the {@link Chart#getData() data}
+     * @return x coordinate in pixels
+     */
+    public double x(int index) {
+        final int n = chart.getData().size();
+        if (centered) {
+            return left + (index + 0.5) * getPlotWidth() / n;
+        }
+        return n == 1 ? left + getPlotWidth() / 2 : left + getPlotWidth() * index / (n - 1);
+    }
+
+    /** Vertical position of a value in the plot area.
+     * @param value the value
+     * @return y coordinate in pixels
+     */
+    public double y(double value) {
+        return bottom - (bottom - top) * ratio(value);
+    }
+
+    /** Distance between labelled elements. Only as many labels are shown
+     * below the plot area as fit next to each other.
+     * @return label every n-th element, at least <code>1</code>
+     */
+    public int getLabelInterval() {
+        if (labelInterval == 0) {
+            final int n = chart.getData().size();
+            double widest = 1;
+            final int probe = Math.min(n, 1000);
+            for (int i = 0; i < probe; i++) {
+                widest = Math.max(widest, measure.width(getElementLabel((int) ((long) i * n / probe))));
+            }
+            labelInterval = Math.max(1, (int) Math.ceil(n * (widest + 10.0) / getPlotWidth()));
+        }
+        return labelInterval;
+    }
+
+    /** Label of an element.
+     * @param index index of the element in the {@link Chart#getData() data}
+     * @return the label, never <code>null</code>
+     */
+    public String getElementLabel(int index) {
+        final String label = chart.dataSets() == null ? ((Segment) chart.getData().get(index)).label : chart.labelAt(index);
+        return label == null ? "" : label;
+    }
+
+    /** Radius of a chart drawn around the center. Radar charts leave room
+     * for the labels of their elements.
+     * @return radius in pixels
+     */
+    public double getRadius() {
+        final double room = "Radar".equals(chart.getType()) ? fontSize + 3 : 0;
+        return Math.max(1, Math.min(width, height) / 2.0 - PADDING - room);
+    }
+}
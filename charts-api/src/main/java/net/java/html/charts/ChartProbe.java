@@ -0,0 +1,74 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+/** Observes calls a {@link Chart} makes to the browser. Register via
+ * {@link Chart#instrument(net.java.html.charts.ChartProbe)} to find out
+ * how many calls a chart makes, how much data they carry and how long they
+ * take on the presenter thread. See {@link BridgeHistogram} for a ready
+ * to use implementation.
+ * <p>
+ * The probe is called synchronously after each call, so it should be fast
+ * and must not modify the chart. Calls that don't wait for the browser
+ * to finish report just the time needed to hand the call over.
+ */
+public interface ChartProbe {
+    /** Kinds of calls to the browser.
+     */
+    public enum Operation {
+        /** Initialization of a line, bar or radar chart in
+         * {@link Chart#applyTo(java.lang.String)}. */
+        INIT_LINE_LIKE,
+        /** Initialization of a pie, doughnut or polar chart in
+         * {@link Chart#applyTo(java.lang.String)}. */
+        INIT_360,
+        /** Addition of a single element. */
+        ADD_DATA,
+        /** Update of a single element. */
+        UPDATE_DATA,
+        /** Removal of a single element. */
+        REMOVE_DATA,
+        /** Batch of changes, for example made in
+         * {@link Chart#batch(java.lang.Runnable)}. */
+        APPLY_OPS,
+        /** Reading positions of points for
+         * {@link Chart#spatialHitTest() hit testing}. */
+        POSITIONS,
+        /** {@link Chart#destroy() Destruction} of the chart. */
+        DESTROY
+    }
+
+    /** Called after a call to the browser.
+     *
+     * @param chart the chart making the call
+     * @param op the kind of the call
+     * @param elements number of elements the call carried, for example
+     *   values for each data set when initializing a chart, or changes in a batch
+     * @param nanos duration of the call in nanoseconds
+     */
+    public void bridgeCall(Chart<?, ?> chart, Operation op, int elements, long nanos);
+}
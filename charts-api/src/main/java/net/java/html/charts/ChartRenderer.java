@@ -0,0 +1,452 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.ServiceLoader;
+
+/** Draws {@link Chart charts} on the HTML page. By default charts are
+ * drawn by the bundled <a href="http://www.chartjs.org">Chart.js</a>
+ * library. Other renderers may be
+ * {@link Chart#renderWith(net.java.html.charts.ChartRenderer) selected for a chart}
+ * or registered via {@link ServiceLoader} - then they are used for all
+ * charts of the types they {@link #accepts(java.lang.String) accept}.
+ * <p>
+ * A renderer is stateless, the state of each chart lives in the
+ * object returned from {@link #create(net.java.html.charts.Chart, java.lang.String, java.lang.Object) create}.
+ * All methods are called on the thread of the presenter.
+ */
+public abstract class ChartRenderer {
+    private static List<ChartRenderer> installed;
+
+    /** Constructor for subclasses.
+     */
+    protected ChartRenderer() {
+    }
+
+    /** Can this renderer draw charts of given type?
+     *
+     * @param type one of <code>Line</code>, <code>Bar</code>, <code>Radar</code>,
+     *   <code>TimeSeries</code>, <code>Pie</code>, <code>Doughnut</code>
+     *   or <code>PolarArea</code>
+     * @return <code>true</code> if the renderer can draw it
+     */
+    protected abstract boolean accepts(String type);
+
+    /** Draws the chart into an element on the page. The data to draw
+     * are available via {@link #displayed(net.java.html.charts.Chart)}.
+     * Clicks should be reported via {@link #fireClick} and, when
+     * {@link #track(net.java.html.charts.Chart, java.lang.Object, boolean, boolean) tracking}
+     * is on, mouse moves via {@link #fireHover} or clicks via {@link #fireHit}.
+     *
+     * @param chart the chart to draw
+     * @param id the id of the element to place the chart to
+     * @param config the JavaScript {@link Config configuration} object
+     * @return object representing the drawn chart, passed to all other methods
+     */
+    protected abstract Object create(Chart<?, ?> chart, String id, Object config);
+
+    /** Applies a batch of changes to the drawn chart and repaints it.
+     * Indexes of the {@link Change changes} refer to the
+     * {@link #displayed(net.java.html.charts.Chart) displayed} elements
+     * as they are after applying the previous changes.
+     *
+     * @param chart the chart
+     * @param graph the object returned from {@link #create}
+     * @param changes the changes in the order they were made
+     */
+    protected abstract void update(Chart<?, ?> chart, Object graph, List<Change> changes);
+
+    /** Removes the chart from the page and releases its resources.
+     *
+     * @param chart the chart
+     * @param graph the object returned from {@link #create}
+     */
+    protected abstract void destroy(Chart<?, ?> chart, Object graph);
+
+    /** Positions of the drawn points for {@link Chart#spatialHitTest() hit testing}.
+     * The first element is the radius of a point. The second one is
+     * <code>1</code> while the points are still moving, for example during
+     * an animation, and <code>0</code> once they are at their final place.
+     * Only final positions are cached by the chart. Then follow the x and y
+     * coordinates of each point, data set after data set.
+     *
+     * @param chart the chart
+     * @param graph the object returned from {@link #create}
+     * @return the positions or <code>null</code> if not supported
+     */
+    protected double[] positions(Chart<?, ?> chart, Object graph) {
+        return null;
+    }
+
+    /** Notifies the renderer which events the chart is interested in.
+     * Called when the listeners of the chart change.
+     *
+     * @param chart the chart
+     * @param graph the object returned from {@link #create}
+     * @param hover should mouse moves be reported via {@link #fireHover}?
+     * @param hitTest should clicks be reported via {@link #fireHit}
+     *   rather than {@link #fireClick}?
+     */
+    protected void track(Chart<?, ?> chart, Object graph, boolean hover, boolean hitTest) {
+    }
+
+    /** Type of the chart.
+     * @param chart the chart
+     * @return the type as passed to {@link #accepts(java.lang.String)}
+     */
+    protected static String typeOf(Chart<?, ?> chart) {
+        return chart.type();
+    }
+
+    /** Sets of values of a chart.
+     * @param chart the chart
+     * @return copy of the sets or <code>null</code> for charts of {@link Segment segments}
+     */
+    protected static Values.Set[] dataSets(Chart<?, ?> chart) {
+        final Values.Set[] sets = chart.dataSets();
+        return sets == null ? null : sets.clone();
+    }
+
+    /** Elements of the chart to draw. The same as {@link Chart#getData()}
+     * unless the chart is {@link Chart#downsample(int) downsampled}.
+     *
+     * @param chart the chart
+     * @return read-only view of the {@link Values} or {@link Segment segments} to draw
+     */
+    protected static List<?> displayed(final Chart<?, ?> chart) {
+        final List<?> data = chart.getData();
+        final Decimation d = chart.decimation();
+        if (d == null) {
+            return Collections.unmodifiableList(data);
+        }
+        return new AbstractList<Object>() {
+            @Override
+            public Object get(int index) {
+                if (index >= d.count) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + d.count);
+                }
+                return data.get(d.view[index]);
+            }
+
+            @Override
+            public int size() {
+                return d.count;
+            }
+        };
+    }
+
+    /** Definition of <code>decode(data, count)</code> JavaScript function
+     * turning the result of {@link #transfer(double[], int)} into an array
+     * of <code>count</code> numbers. To be prepended to bodies of
+     * {@link net.java.html.js.JavaScriptBody} methods receiving the values.
+     */
+    protected static final String DECODE = Doubles.DECODE;
+
+    /** Prepares values for transfer to JavaScript. Passing a <code>double[]</code>
+     * element by element is slow in some presenters, so the values are packed
+     * into a single string, unless the presenter shares Java arrays with
+     * JavaScript. Decode them with the function defined by {@link #DECODE}.
+     *
+     * @param values the values
+     * @param count number of values to transfer
+     * @return object to pass to JavaScript together with <code>count</code>
+     */
+    protected static Object transfer(double[] values, int count) {
+        return Doubles.transfer(values, count);
+    }
+
+    /** Delivers a click to the {@link ChartListener listeners} of the chart.
+     *
+     * @param chart the chart
+     * @param shift was shift key pressed?
+     * @param ctrl was control key pressed?
+     * @param info four elements for each clicked value - label, value,
+     *   index of the data set and index of the {@link #displayed(net.java.html.charts.Chart) displayed} element
+     */
+    protected static void fireClick(Chart<?, ?> chart, boolean shift, boolean ctrl, Object[] info) {
+        chart.onClick(new Object[] { shift, ctrl }, info);
+    }
+
+    /** Delivers a mouse move to the {@link ChartHoverListener hover listeners} of the chart.
+     *
+     * @param chart the chart
+     * @param shift was shift key pressed?
+     * @param ctrl was control key pressed?
+     * @param info the same as for {@link #fireClick}
+     */
+    protected static void fireHover(Chart<?, ?> chart, boolean shift, boolean ctrl, Object[] info) {
+        chart.onHover(new Object[] { shift, ctrl }, info);
+    }
+
+    /** Delivers a click at given position. The chart finds the nearest
+     * point by itself with the help of {@link #positions}.
+     *
+     * @param chart the chart
+     * @param shift was shift key pressed?
+     * @param ctrl was control key pressed?
+     * @param x horizontal position relative to the chart
+     * @param y vertical position relative to the chart
+     * @param width width of the chart
+     * @param height height of the chart
+     */
+    protected static void fireHit(Chart<?, ?> chart, boolean shift, boolean ctrl, double x, double y, int width, int height) {
+        chart.onHit(new Object[] { shift, ctrl }, x, y, width, height);
+    }
+
+    //
+    // single changes, renderers in this package may handle them directly
+    //
+
+    void addValues(Chart<?, ?> chart, Object graph, Values v) {
+        update(chart, graph, Collections.singletonList(Change.add(-1, v)));
+    }
+
+    void addSegment(Chart<?, ?> chart, Object graph, int index, Segment s) {
+        update(chart, graph, Collections.singletonList(Change.add(index, s)));
+    }
+
+    void removeData(Chart<?, ?> chart, Object graph, int index) {
+        update(chart, graph, Collections.singletonList(Change.remove(index, 1)));
+    }
+
+    void updateValues(Chart<?, ?> chart, Object graph, int index, Values v) {
+        update(chart, graph, Collections.singletonList(Change.set(index, v)));
+    }
+
+    void updateSegment(Chart<?, ?> chart, Object graph, int index, Segment s) {
+        update(chart, graph, Collections.singletonList(Change.set(index, s)));
+    }
+
+    /** Finds renderer for a chart type. Renderers registered via
+     * {@link ServiceLoader} take precedence over the built-in ones.
+     */
+    static ChartRenderer find(String type) {
+        for (ChartRenderer r : installed()) {
+            if (r.accepts(type)) {
+                return r;
+            }
+        }
+        if (TimeSeriesRenderer.DEFAULT.accepts(type)) {
+            return TimeSeriesRenderer.DEFAULT;
+        }
+        return ChartJs.DEFAULT;
+    }
+
+    private static synchronized List<ChartRenderer> installed() {
+        if (installed == null) {
+            List<ChartRenderer> arr = new ArrayList<>();
+            for (ChartRenderer r : ServiceLoader.load(ChartRenderer.class)) {
+                arr.add(r);
+            }
+            installed = arr;
+        }
+        return installed;
+    }
+
+    /** Single change of the elements of a drawn chart, passed to
+     * {@link ChartRenderer#update(net.java.html.charts.Chart, java.lang.Object, java.util.List)}.
+     */
+    public static final class Change {
+        /** Kinds of changes.
+         */
+        public enum Kind {
+            /** Addition of an element at {@link Change#getIndex() index},
+             * <code>-1</code> means at the end. */
+            ADD,
+            /** Replacement of the element at {@link Change#getIndex() index}. */
+            SET,
+            /** Removal of {@link Change#getCount() count} elements starting
+             * at {@link Change#getIndex() index}. */
+            REMOVE,
+            /** Value axis fixed to {@link Change#getCount() count} steps of
+             * {@link Change#getStepWidth() width} starting at
+             * {@link Change#getStart() start}. */
+            SCALE
+        }
+
+        final Kind kind;
+        final int index;
+        final String label;
+        final double[] values;
+        final double value;
+        final int count;
+        final Color color;
+        final Color highlight;
+
+        private Change(Kind kind, int index, String label, double[] values, double value, int count, Color color, Color highlight) {
+            this.kind = kind;
+            this.index = index;
+            this.label = label;
+            this.values = values;
+            this.value = value;
+            this.count = count;
+            this.color = color;
+            this.highlight = highlight;
+        }
+
+        static Change add(int index, Values v) {
+            return new Change(Kind.ADD, index, v.label, v.values, 0, 1, null, null);
+        }
+
+        static Change add(int index, Segment s) {
+            return new Change(Kind.ADD, index, s.label, null, s.value, 1, s.color, s.highlight);
+        }
+
+        static Change set(int index, Values v) {
+            return new Change(Kind.SET, index, v.label, v.values, 0, 1, null, null);
+        }
+
+        static Change set(int index, Segment s) {
+            return new Change(Kind.SET, index, s.label, null, s.value, 1, s.color, s.highlight);
+        }
+
+        static Change remove(int index, int count) {
+            return new Change(Kind.REMOVE, index, null, null, 0, count, null, null);
+        }
+
+        static Change scale(int steps, double width, double start) {
+            return new Change(Kind.SCALE, -1, null, new double[] { width, start }, 0, steps, null, null);
+        }
+
+        /** The kind of this change.
+         * @return the kind
+         */
+        public Kind getKind() {
+            return kind;
+        }
+
+        /** Index of the first affected element.
+         * @return the index, <code>-1</code> for addition at the end
+         *   and for {@link Kind#SCALE}
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /** Label of the added or replaced element.
+         * @return the label or <code>null</code>
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        /** Values of the added or replaced element of a chart of {@link Values},
+         * one for each data set.
+         * @return copy of the values or <code>null</code> for {@link Segment segments}
+         *   and other kinds of changes
+         */
+        public double[] getValues() {
+            return kind == Kind.SCALE || values == null ? null : values.clone();
+        }
+
+        /** Value of the added or replaced {@link Segment segment}.
+         * @return the value, <code>0</code> for other changes
+         */
+        public double getValue() {
+            return value;
+        }
+
+        /** Number of elements affected by the change or number of
+         * steps of a {@link Kind#SCALE scale}.
+         * @return the number of elements or steps
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /** Color of the added or replaced {@link Segment segment}.
+         * @return the color or <code>null</code> for other changes
+         */
+        public Color getColor() {
+            return color;
+        }
+
+        /** Highlight color of the added or replaced {@link Segment segment}.
+         * @return the color or <code>null</code> for other changes
+         */
+        public Color getHighlight() {
+            return highlight;
+        }
+
+        /** Width of a step of a {@link Kind#SCALE scale}.
+         * @return the width, <code>0</code> for other changes
+         */
+        public double getStepWidth() {
+            return kind == Kind.SCALE ? values[0] : 0;
+        }
+
+        /** Start value of a {@link Kind#SCALE scale}.
+         * @return the start, <code>0</code> for other changes
+         */
+        public double getStart() {
+            return kind == Kind.SCALE ? values[1] : 0;
+        }
+
+        /** Packs the changes into an array for JavaScript. Each change
+         * takes six elements - operation (<code>"add"</code>, <code>"set"</code>,
+         * <code>"remove"</code> or <code>"scale"</code>), index, label, data
+         * (values, segment value, count of removed elements or step width
+         * and start), color and highlight color.
+         */
+        static Object[] encode(List<Change> changes) {
+            Object[] ops = new Object[changes.size() * 6];
+            int at = 0;
+            for (Change c : changes) {
+                Object data;
+                int index = c.index;
+                switch (c.kind) {
+                    case REMOVE:
+                        data = c.count;
+                        break;
+                    case SCALE:
+                        data = c.values;
+                        index = c.count;
+                        break;
+                    default:
+                        data = c.values != null ? c.values : (Object) c.value;
+                }
+                ops[at++] = c.kind.name().toLowerCase(Locale.ENGLISH);
+                ops[at++] = index;
+                ops[at++] = c.label;
+                ops[at++] = data;
+                ops[at++] = c.color == null ? null : c.color.color;
+                ops[at++] = c.highlight == null ? null : c.highlight.color;
+            }
+            return ops;
+        }
+
+        @Override
+        public String toString() {
+            return kind + " " + index + " " + label;
+        }
+    }
+}
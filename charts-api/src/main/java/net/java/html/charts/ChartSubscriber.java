@@ -0,0 +1,204 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+/** Subscriber feeding a {@link Chart} from a reactive stream. The
+ * methods have the same meaning as the ones of
+ * <code>java.util.concurrent.Flow.Subscriber</code>, so it is easy to
+ * connect the chart to a <code>Flow.Publisher</code>:
+ * <pre>
+ * final ChartSubscriber&lt;Values&gt; sink = ChartSubscriber.create(chart, 256);
+ * publisher.subscribe(new Flow.Subscriber&lt;Values&gt;() {
+ *   public void onSubscribe(final Flow.Subscription s) {
+ *     sink.onSubscribe(new ChartSubscriber.Subscription() {
+ *       public void request(long n) { s.request(n); }
+ *       public void cancel() { s.cancel(); }
+ *     });
+ *   }
+ *   public void onNext(Values v) { sink.onNext(v); }
+ *   public void onError(Throwable t) { sink.onError(t); }
+ *   public void onComplete() { sink.onComplete(); }
+ * });
+ * </pre>
+ * The elements are delivered via a {@link ChartFeed}, so the
+ * <code>onXyz</code> methods may be called from any thread. The subscriber
+ * requests <code>prefetch</code> elements at the beginning and then
+ * only as many as the presenter has already sent to the chart. A fast
+ * publisher is thus slowed down to the speed of the presenter.
+ *
+ * @param <D> type of data in the chart
+ */
+public final class ChartSubscriber<D> {
+    /** Connection to the publisher. Mirrors
+     * <code>java.util.concurrent.Flow.Subscription</code>.
+     */
+    public interface Subscription {
+        /** Asks for more elements.
+         * @param n the number of elements
+         */
+        void request(long n);
+
+        /** Stops sending of the elements.
+         */
+        void cancel();
+    }
+
+    private final ChartFeed<D> feed;
+    private final int prefetch;
+    private volatile Subscription subscription;
+    private volatile boolean cancelled;
+    private volatile boolean done;
+    private volatile Throwable error;
+    private long consumed;
+
+    private ChartSubscriber(ChartFeed<D> feed, int prefetch) {
+        this.feed = feed;
+        this.prefetch = prefetch;
+    }
+
+    /** Creates a subscriber for given chart. Has to be called from the
+     * thread of the presenter the chart is displayed by.
+     *
+     * @param <D> type of data in the chart
+     * @param chart the chart to feed
+     * @param prefetch maximal number of elements on their way to the chart
+     * @return new subscriber
+     * @throws IllegalArgumentException if <code>prefetch</code> isn't positive
+     * @throws IllegalStateException if there is no presenter able to execute
+     *   code on its thread
+     */
+    public static <D> ChartSubscriber<D> create(Chart<D, ?> chart, int prefetch) {
+        final ChartSubscriber<D> s = new ChartSubscriber<>(
+            ChartFeed.create(chart, prefetch, ChartFeed.Overflow.REJECT), prefetch
+        );
+        s.feed.onDrained(new Runnable() {
+            @Override
+            public void run() {
+                s.drained();
+            }
+        });
+        return s;
+    }
+
+    /** Called by the publisher when the subscription starts.
+     * A second subscription is cancelled.
+     *
+     * @param s the subscription
+     */
+    public void onSubscribe(Subscription s) {
+        if (subscription != null) {
+            s.cancel();
+            return;
+        }
+        subscription = s;
+        s.request(prefetch);
+    }
+
+    /** Called by the publisher with a new element. A publisher sending
+     * more elements than requested has its subscription cancelled and
+     * the stream ends with an {@link IllegalStateException}.
+     *
+     * @param element the element to {@link Chart#append(java.lang.Object) append} to the chart
+     */
+    public void onNext(D element) {
+        if (cancelled || done) {
+            return;
+        }
+        if (!feed.offer(element)) {
+            error = new IllegalStateException("More than " + prefetch + " elements pending");
+            cancel();
+        }
+    }
+
+    /** Called by the publisher when the stream fails. The elements
+     * received so far are still sent to the chart.
+     *
+     * @param t the failure
+     */
+    public void onError(Throwable t) {
+        error = t;
+        finish();
+    }
+
+    /** Called by the publisher when the stream ends.
+     */
+    public void onComplete() {
+        finish();
+    }
+
+    /** Cancels the subscription. No more elements are requested nor
+     * accepted. The elements received so far are still sent to the chart.
+     */
+    public void cancel() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+        Subscription s = subscription;
+        if (s != null) {
+            s.cancel();
+        }
+        finish();
+    }
+
+    /** Has the stream ended?
+     * @return <code>true</code> once all the elements are sent to the chart
+     *   after {@link #onComplete()}, {@link #onError(java.lang.Throwable)}
+     *   or {@link #cancel()}
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /** The failure the stream ended with.
+     * @return the exception passed to {@link #onError(java.lang.Throwable)}
+     *   or <code>null</code>
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    private void finish() {
+        feed.execute(new Runnable() {
+            @Override
+            public void run() {
+                feed.drain();
+                done = true;
+            }
+        });
+    }
+
+    private void drained() {
+        final long delivered = feed.delivered();
+        final long n = delivered - consumed;
+        consumed = delivered;
+        Subscription s = subscription;
+        if (!cancelled && !done && s != null && n > 0) {
+            s.request(n);
+        }
+    }
+}
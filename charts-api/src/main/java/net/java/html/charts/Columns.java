@@ -0,0 +1,104 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+/** Columnar storage of {@link Values}. Keeps one primitive array per
+ * {@link Values.Set} and one array of labels instead of an object per
+ * column of values. The slots are addressed by the owning list, which
+ * uses them as a ring buffer.
+ */
+final class Columns {
+    String[] labels;
+    double[][] values;
+
+    Columns(int sets, int capacity) {
+        this.labels = new String[capacity];
+        this.values = new double[sets][capacity];
+    }
+
+    int capacity() {
+        return labels.length;
+    }
+
+    Values get(int slot) {
+        double[] arr = new double[values.length];
+        for (int i = 0; i < arr.length; i++) {
+            arr[i] = values[i][slot];
+        }
+        return new Values(labels[slot], arr);
+    }
+
+    void set(int slot, Values v) {
+        if (v.values.length != values.length) {
+            throw new IllegalArgumentException(
+                "Expecting " + values.length + " values, but got " + v.values.length
+            );
+        }
+        labels[slot] = v.label;
+        for (int i = 0; i < values.length; i++) {
+            values[i][slot] = v.values[i];
+        }
+    }
+
+    void copy(int from, int to) {
+        labels[to] = labels[from];
+        for (double[] column : values) {
+            column[to] = column[from];
+        }
+    }
+
+    void copyFrom(Columns other, int from, int to) {
+        labels[to] = other.labels[from];
+        for (int i = 0; i < values.length; i++) {
+            values[i][to] = other.values[i][from];
+        }
+    }
+
+    void erase(int slot) {
+        labels[slot] = null;
+    }
+
+    /** Copies the content into new arrays, so it starts at slot zero.
+     *
+     * @param head the slot of the first element
+     * @param size number of elements
+     * @param capacity the capacity of the new arrays
+     */
+    void relayout(int head, int size, int capacity) {
+        String[] newLabels = new String[capacity];
+        double[][] newValues = new double[values.length][capacity];
+        int first = Math.min(size, labels.length - head);
+        System.arraycopy(labels, head, newLabels, 0, first);
+        System.arraycopy(labels, 0, newLabels, first, size - first);
+        for (int i = 0; i < values.length; i++) {
+            System.arraycopy(values[i], head, newValues[i], 0, first);
+            System.arraycopy(values[i], 0, newValues[i], first, size - first);
+        }
+        labels = newLabels;
+        values = newValues;
+    }
+}
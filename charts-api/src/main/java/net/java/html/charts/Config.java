@@ -26,6 +26,11 @@ package net.java.html.charts;
  * #L%
  */
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import net.java.html.js.JavaScriptBody;
 
 /**
@@ -34,12 +39,26 @@ import net.java.html.js.JavaScriptBody;
  * method. The list of supported properties is available at
  * <a href="https://github.com/chartjs/Chart.js/blob/v1.0.2/docs/00-Getting-Started.md">
  * Global Chart Configuration</a>.
+ * <p>
+ * The configuration doesn't talk to the browser until its chart is
+ * {@link Chart#applyTo(java.lang.String) displayed}. Till then the properties
+ * are only recorded, so charts can be configured on any thread, without
+ * an active presenter.
  */
 public class Config {
-    final Object js;
+    private final ConfigTemplate template;
+    private List<Object> properties;
+    private Object js;
+    private boolean shared;
+    private final Map<String, Object> values = new HashMap<>();
 
     Config() {
-        js = initConfig("responsive", true);
+        this(ConfigTemplate.create());
+    }
+
+    Config(ConfigTemplate template) {
+        this.template = template;
+        this.properties = new ArrayList<>();
     }
 
     /** Creates new generic configuration object.
@@ -59,10 +78,52 @@ public class Config {
      * @return <code>this</code>
      */
     public final Config set(String propertyName, Object value) {
-        set(js, propertyName, value);
+        values.put(propertyName, value);
+        if (js == null) {
+            properties.add(propertyName);
+            properties.add(value);
+        } else {
+            set(own(), propertyName, value);
+        }
         return this;
     }
 
+    /** Value of a property. Either the last one {@link #set(java.lang.String, java.lang.Object) set}
+     * to this object or the one from the {@link ConfigTemplate template}
+     * it was created from. The value is read in Java, without asking
+     * the browser.
+     *
+     * @param propertyName name of the property
+     * @return the value or <code>null</code> if the property hasn't been set
+     */
+    public final Object get(String propertyName) {
+        if (values.containsKey(propertyName)) {
+            return values.get(propertyName);
+        }
+        final Object[] base = template.pairs();
+        for (int i = base.length - 2; i >= 0; i -= 2) {
+            if (propertyName.equals(base[i])) {
+                return base[i + 1];
+            }
+        }
+        return null;
+    }
+
+    final boolean flag(String propertyName, boolean def) {
+        final Object v = get(propertyName);
+        return v instanceof Boolean ? (Boolean) v : v instanceof String ? Boolean.parseBoolean((String) v) : def;
+    }
+
+    final double number(String propertyName, double def) {
+        final Object v = get(propertyName);
+        return v instanceof Number ? ((Number) v).doubleValue() : def;
+    }
+
+    final String string(String propertyName, String def) {
+        final Object v = get(propertyName);
+        return v == null ? def : v.toString();
+    }
+
     /** Assigns a callback to the config object. The list of supported callback names
      * is available at
      * <a href="https://github.com/chartjs/Chart.js/blob/v1.0.2/docs/00-Getting-Started.md">
@@ -74,10 +135,63 @@ public class Config {
      * @return <code>this</code>
      */
     public final Config callback(String name, Runnable run) {
-        setFn(js, name, run);
+        if (js == null) {
+            properties.add(name);
+            properties.add(run);
+        } else {
+            setFn(own(), name, run);
+        }
         return this;
     }
 
+    /** The configuration object in the browser. Created on the first
+     * request from the template and the recorded properties. Without
+     * any properties the object of the template is shared.
+     */
+    final Object js() {
+        if (js == null) {
+            if (properties.isEmpty()) {
+                js = template.js();
+                shared = true;
+            } else {
+                final Object[] base = template.pairs();
+                List<Object> pairs = new ArrayList<>(base.length + properties.size());
+                pairs.addAll(Arrays.asList(base));
+                for (int i = 0; i < properties.size(); i += 2) {
+                    if (!(properties.get(i + 1) instanceof Runnable)) {
+                        pairs.add(properties.get(i));
+                        pairs.add(properties.get(i + 1));
+                    }
+                }
+                js = initConfig(pairs.toArray());
+                for (int i = 0; i < properties.size(); i += 2) {
+                    if (properties.get(i + 1) instanceof Runnable) {
+                        setFn(js, (String) properties.get(i), (Runnable) properties.get(i + 1));
+                    }
+                }
+            }
+            properties = null;
+        }
+        return js;
+    }
+
+    private Object own() {
+        if (shared) {
+            js = copy(js);
+            shared = false;
+        }
+        return js;
+    }
+
+    @JavaScriptBody(args = { "config" }, body =
+        "var obj = {};\n" +
+        "for (var p in config) {\n" +
+        "  obj[p] = config[p];\n" +
+        "}\n" +
+        "return obj;\n"
+    )
+    private static native Object copy(Object config);
+
     @JavaScriptBody(args = { "initNameValuePairs" }, body =
         "var obj = {};\n" +
         "for (var i = 0; i < initNameValuePairs.length; i += 2) {\n" +
@@ -85,7 +199,7 @@ public class Config {
         "};\n" +
         "return obj;\n"
     )
-    private static native Object initConfig(Object... initNameValuePairs);
+    static native Object initConfig(Object... initNameValuePairs);
 
     @JavaScriptBody(args = { "config", "name", "value" }, wait4js = false, body =
         "config[name] = value;"
@@ -0,0 +1,103 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+import org.netbeans.html.boot.spi.Fn;
+
+/** Immutable configuration shared by many charts. Unlike {@link Config},
+ * which talks to the browser on every {@link Config#set(java.lang.String, java.lang.Object) change},
+ * the template is built in Java only:
+ * <pre>
+ * static final ConfigTemplate SPARKLINE = ConfigTemplate.create().
+ *     with("animation", false).
+ *     with("showScale", false).
+ *     with("pointDot", false);
+ * </pre>
+ * The properties are sent to the browser in a single call when the first chart
+ * {@link Chart#createLine(net.java.html.charts.ConfigTemplate, net.java.html.charts.Values.Set...) created}
+ * from the template needs them. The resulting object is then shared by all
+ * the charts created from the same template. A chart modifying its
+ * {@link Chart#getConfig() configuration} gets its own copy first.
+ */
+public final class ConfigTemplate {
+    private static final ConfigTemplate EMPTY = new ConfigTemplate(new Object[] { "responsive", true });
+    private final Object[] pairs;
+    private final Map<Fn.Presenter, Object> js = new WeakHashMap<>();
+
+    private ConfigTemplate(Object[] pairs) {
+        this.pairs = pairs;
+    }
+
+    /** Template with the default configuration.
+     * @return template with no properties set
+     */
+    public static ConfigTemplate create() {
+        return EMPTY;
+    }
+
+    /** Creates new template with an additional property. The list of supported properties is available at
+     * <a href="https://github.com/chartjs/Chart.js/blob/v1.0.2/docs/00-Getting-Started.md">
+     * Global Chart Configuration</a>.
+     *
+     * @param propertyName name of the property
+     * @param value value for the property ({@link String}, {@link Number}
+     *      or {@link Boolean})
+     * @return new template, <code>this</code> remains unchanged
+     * @throws IllegalArgumentException if the value isn't of supported type
+     */
+    public ConfigTemplate with(String propertyName, Object value) {
+        if (!(value instanceof String) && !(value instanceof Number) && !(value instanceof Boolean)) {
+            throw new IllegalArgumentException("Unsupported value: " + value);
+        }
+        Object[] arr = Arrays.copyOf(pairs, pairs.length + 2);
+        arr[pairs.length] = propertyName;
+        arr[pairs.length + 1] = value;
+        return new ConfigTemplate(arr);
+    }
+
+    final Object[] pairs() {
+        return pairs;
+    }
+
+    /** The configuration object of the active presenter. Created on the
+     * first request and then shared.
+     */
+    final Object js() {
+        final Fn.Presenter p = Fn.activePresenter();
+        synchronized (js) {
+            Object obj = js.get(p);
+            if (obj == null) {
+                obj = Config.initConfig(pairs);
+                js.put(p, obj);
+            }
+            return obj;
+        }
+    }
+}
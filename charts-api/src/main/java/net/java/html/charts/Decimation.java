@@ -0,0 +1,181 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+/** Level of detail reduction for {@link Chart#downsample(int) downsampled}
+ * charts. Splits the displayed range of {@link Columns} into buckets
+ * and keeps just the minimal and the maximal value of each data set
+ * in each bucket. The bucket size is a power of two, so appending values
+ * only recomputes the last bucket until the number of buckets overflows
+ * and the size doubles.
+ */
+final class Decimation {
+    private final int maxPoints;
+    private int from;
+    private int to = -1;
+    private int step = 1;
+    private int dirty = Integer.MAX_VALUE;
+    private boolean reset = true;
+    private int[] picked = new int[2];
+    int[] view = new int[16];
+    int count;
+
+    Decimation(int maxPoints) {
+        this.maxPoints = maxPoints;
+    }
+
+    /** Limits the range of indexes to display.
+     * @param from first index
+     * @param to index after the last one or <code>-1</code> to show everything
+     */
+    void range(int from, int to) {
+        this.from = from;
+        this.to = to;
+        this.reset = true;
+    }
+
+    /** Notifies the decimation that values starting at given index
+     * have changed.
+     */
+    void changed(int index) {
+        if (index < dirty) {
+            dirty = index;
+        }
+    }
+
+    boolean isDirty() {
+        return reset || dirty != Integer.MAX_VALUE;
+    }
+
+    /** Recomputes the view.
+     *
+     * @param columns the values
+     * @param head slot of the first element in the columns
+     * @param size number of elements in the columns
+     * @return the first position in {@link #view} that has changed
+     */
+    int refresh(Columns columns, int head, int size) {
+        final int start = Math.min(from, size);
+        final int end = to == -1 ? size : Math.min(to, size);
+        final int buckets = Math.max(1, maxPoints / (2 * Math.max(1, columns.values.length)));
+        int newStep = 1;
+        while ((end - start + newStep - 1) / newStep > buckets) {
+            newStep *= 2;
+        }
+        final boolean full = reset || newStep != step || dirty <= start;
+        step = newStep;
+        int at = full ? start : start + (dirty - start) / step * step;
+        int firstChange = full ? 0 : count;
+        while (firstChange > 0 && view[firstChange - 1] >= at) {
+            firstChange--;
+        }
+        count = firstChange;
+        dirty = Integer.MAX_VALUE;
+        reset = false;
+        final double[][] values = columns.values;
+        final int capacity = columns.capacity();
+        if (picked.length < values.length * 2) {
+            picked = new int[values.length * 2];
+        }
+        while (at < end) {
+            final int bucketEnd = Math.min(at + step, end);
+            int n = 0;
+            for (double[] column : values) {
+                int minIndex = at;
+                int maxIndex = at;
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (int i = at; i < bucketEnd; i++) {
+                    int slot = head + i;
+                    if (slot >= capacity) {
+                        slot -= capacity;
+                    }
+                    final double v = column[slot];
+                    if (v < min) {
+                        min = v;
+                        minIndex = i;
+                    }
+                    if (v > max) {
+                        max = v;
+                        maxIndex = i;
+                    }
+                }
+                n = pick(n, minIndex);
+                n = pick(n, maxIndex);
+            }
+            for (int i = 0; i < n; i++) {
+                add(picked[i]);
+            }
+            at = bucketEnd;
+        }
+        return firstChange;
+    }
+
+    /** Copies the values currently in the {@link #view}.
+     *
+     * @param columns all the values
+     * @param head slot of the first element in the columns
+     * @return new columns containing just the selected values
+     */
+    Columns select(Columns columns, int head) {
+        Columns selected = new Columns(columns.values.length, count);
+        final int capacity = columns.capacity();
+        for (int i = 0; i < count; i++) {
+            int slot = head + view[i];
+            if (slot >= capacity) {
+                slot -= capacity;
+            }
+            selected.copyFrom(columns, slot, i);
+        }
+        return selected;
+    }
+
+    /** Inserts an index into the sorted {@link #picked} indexes
+     * of the current bucket, unless it is already there.
+     */
+    private int pick(int n, int index) {
+        int i = n;
+        while (i > 0 && picked[i - 1] > index) {
+            i--;
+        }
+        if (i > 0 && picked[i - 1] == index) {
+            return n;
+        }
+        System.arraycopy(picked, i, picked, i + 1, n - i);
+        picked[i] = index;
+        return n + 1;
+    }
+
+    private void add(int index) {
+        if (count == view.length) {
+            int[] arr = new int[count * 2];
+            System.arraycopy(view, 0, arr, 0, count);
+            view = arr;
+        }
+        view[count++] = index;
+    }
+}
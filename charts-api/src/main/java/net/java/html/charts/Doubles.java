@@ -0,0 +1,139 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import net.java.html.js.JavaScriptBody;
+import org.netbeans.html.boot.spi.Fn;
+
+/** Transfer of numeric series to JavaScript. Converting a <code>double[]</code>
+ * into a JavaScript array element by element is expensive in some presenters
+ * (like JavaFX WebView). Such arrays are rather packed into a single
+ * base64 string of little endian IEEE 754 doubles and decoded on the
+ * JavaScript side into a <code>Float64Array</code>. Presenters that pass Java
+ * arrays to JavaScript by reference, without copying (like Bck2Brwsr), get
+ * the arrays directly.
+ */
+final class Doubles {
+    /** Definition of <code>decode(data, count)</code> JavaScript function
+     * turning the result of {@link #transfer(double[], int)} into an array
+     * of <code>count</code> numbers - a <code>Float64Array</code> over the decoded
+     * bytes, unless the array was passed directly. To be prepended to bodies of
+     * {@link net.java.html.js.JavaScriptBody} methods.
+     */
+    static final String DECODE =
+        "function decode(data, count) {\n" +
+        "  if (typeof data !== 'string') {\n" +
+        "    return Array.prototype.slice.call(data, 0, count);\n" +
+        "  }\n" +
+        "  var bin = atob(data);\n" +
+        "  var bytes = new Uint8Array(count * 8);\n" +
+        "  for (var i = 0; i < bytes.length; i++) {\n" +
+        "    bytes[i] = bin.charCodeAt(i);\n" +
+        "  }\n" +
+        "  if (new Uint8Array(new Float64Array([1]).buffer)[7] === 0x3f) {\n" +
+        "    return new Float64Array(bytes.buffer);\n" +
+        "  }\n" +
+        "  var view = new DataView(bytes.buffer);\n" +
+        "  var arr = new Float64Array(count);\n" +
+        "  for (var i = 0; i < count; i++) {\n" +
+        "    arr[i] = view.getFloat64(i * 8, true);\n" +
+        "  }\n" +
+        "  return arr;\n" +
+        "}\n";
+
+    private static final Map<Fn.Presenter, Boolean> DIRECT = new WeakHashMap<>();
+    private static final char[] BASE64 =
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    private Doubles() {
+    }
+
+    /** Prepares first <code>count</code> elements of the array for transfer to
+     * JavaScript. The result is to be processed by the <code>decode</code>
+     * function defined by {@link #DECODE}.
+     *
+     * @param arr the values
+     * @param count number of values to transfer
+     * @return either the array itself or a string encoding its values
+     */
+    static Object transfer(double[] arr, int count) {
+        if (isDirect(Fn.activePresenter())) {
+            return arr;
+        }
+        return encode(arr, count);
+    }
+
+    /** Does the presenter pass Java arrays to JavaScript by reference?
+     * Asked once per presenter - the same array is passed twice and
+     * only a presenter that doesn't copy the arrays gets the very same
+     * object both times.
+     */
+    private static boolean isDirect(Fn.Presenter p) {
+        if (p == null) {
+            return false;
+        }
+        synchronized (DIRECT) {
+            Boolean direct = DIRECT.get(p);
+            if (direct == null) {
+                final double[] probe = { 0.5 };
+                direct = Boolean.TRUE.equals(sameArray(probe, probe));
+                DIRECT.put(p, direct);
+            }
+            return direct;
+        }
+    }
+
+    @JavaScriptBody(args = { "a", "b" }, body = "return a === b;")
+    private static native Object sameArray(double[] a, double[] b);
+
+    static String encode(double[] arr, int count) {
+        final int length = count * 8;
+        char[] out = new char[(length + 2) / 3 * 4];
+        int at = 0;
+        long bits = 0;
+        for (int i = 0; i < length; i += 3) {
+            int group = 0;
+            for (int j = 0; j < 3; j++) {
+                int b = i + j;
+                group <<= 8;
+                if (b < length) {
+                    if ((b & 7) == 0) {
+                        bits = Double.doubleToRawLongBits(arr[b >> 3]);
+                    }
+                    group |= (int) (bits >>> ((b & 7) * 8)) & 0xff;
+                }
+            }
+            out[at++] = BASE64[(group >> 18) & 0x3f];
+            out[at++] = BASE64[(group >> 12) & 0x3f];
+            out[at++] = i + 1 < length ? BASE64[(group >> 6) & 0x3f] : '=';
+            out[at++] = i + 2 < length ? BASE64[group & 0x3f] : '=';
+        }
+        return new String(out);
+    }
+}
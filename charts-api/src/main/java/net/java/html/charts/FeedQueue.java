@@ -0,0 +1,134 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/** Lock-free multi producer, single consumer queue. Producers link
+ * new nodes to the tail with a single atomic swap. Removing from the
+ * head is guarded by a flag, so producers dropping the oldest element
+ * never wait for the consumer - they just leave the work to it.
+ */
+final class FeedQueue<T> {
+    private final AtomicReference<Node<T>> tail;
+    private final AtomicBoolean consuming = new AtomicBoolean();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final int capacity;
+    private final boolean dropOldest;
+    private Node<T> head;
+
+    FeedQueue(int capacity, boolean dropOldest) {
+        this.capacity = capacity;
+        this.dropOldest = dropOldest;
+        this.head = new Node<>(null);
+        this.tail = new AtomicReference<>(head);
+    }
+
+    /** Adds the element. Never blocks.
+     *
+     * @return <code>false</code> if the element was rejected
+     */
+    boolean offer(T element) {
+        if (size.incrementAndGet() > capacity && !dropOldest) {
+            size.decrementAndGet();
+            dropped.incrementAndGet();
+            return false;
+        }
+        Node<T> node = new Node<>(element);
+        Node<T> prev = tail.getAndSet(node);
+        prev.next = node;
+        while (dropOldest && size.get() > capacity && consuming.compareAndSet(false, true)) {
+            try {
+                if (poll() == null) {
+                    break;
+                }
+                dropped.incrementAndGet();
+            } finally {
+                consuming.set(false);
+            }
+        }
+        return true;
+    }
+
+    /** Moves all available elements to the list. Called by the consumer.
+     *
+     * @return number of moved elements
+     */
+    int drainTo(List<? super T> to) {
+        while (!consuming.compareAndSet(false, true)) {
+            // a producer is dropping the oldest element
+            Thread.yield();
+        }
+        try {
+            int cnt = 0;
+            for (;;) {
+                T element = poll();
+                if (element == null) {
+                    return cnt;
+                }
+                to.add(element);
+                cnt++;
+            }
+        } finally {
+            consuming.set(false);
+        }
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    long dropped() {
+        return dropped.get();
+    }
+
+    private T poll() {
+        Node<T> next = head.next;
+        if (next == null) {
+            return null;
+        }
+        head = next;
+        T element = next.element;
+        next.element = null;
+        size.decrementAndGet();
+        return element;
+    }
+
+    private static final class Node<T> {
+        T element;
+        volatile Node<T> next;
+
+        Node(T element) {
+            this.element = element;
+        }
+    }
+}
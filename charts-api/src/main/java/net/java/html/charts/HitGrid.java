@@ -0,0 +1,115 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+/** Uniform grid over pixel positions of rendered points. Each cell is
+ * as big as the hit radius, so the nearest point within the radius is
+ * always in the cell of the query or in one of its eight neighbours.
+ */
+final class HitGrid {
+    final int width;
+    final int height;
+    final int count;
+    private final double[] xy;
+    private final double radius;
+    private final int columns;
+    private final int rows;
+    private final int[] start;
+    private final int[] points;
+
+    /** Builds the grid.
+     *
+     * @param xy pairs of <code>x</code> and <code>y</code> coordinates of
+     *   all points of the first data set, then the second, etc.
+     * @param count number of points in each data set
+     * @param radius maximal distance of a hit from a point
+     * @param width width of the chart
+     * @param height height of the chart
+     */
+    HitGrid(double[] xy, int count, double radius, int width, int height) {
+        this.xy = xy;
+        this.count = count;
+        this.radius = radius;
+        this.width = width;
+        this.height = height;
+        this.columns = Math.max(1, (int) Math.ceil(width / radius));
+        this.rows = Math.max(1, (int) Math.ceil(height / radius));
+        final int n = xy.length / 2;
+        this.start = new int[columns * rows + 1];
+        this.points = new int[n];
+        for (int i = 0; i < n; i++) {
+            start[cell(i) + 1]++;
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            start[c + 1] += start[c];
+        }
+        int[] next = start.clone();
+        for (int i = 0; i < n; i++) {
+            points[next[cell(i)]++] = i;
+        }
+    }
+
+    /** Finds the nearest point.
+     *
+     * @return <code>set * count + index</code> of the nearest point or
+     *   <code>-1</code> if there is no point within the radius
+     */
+    int nearest(double x, double y) {
+        final int cx = column(x);
+        final int cy = row(y);
+        int best = -1;
+        double bestDistance = radius * radius;
+        for (int r = Math.max(0, cy - 1); r <= Math.min(rows - 1, cy + 1); r++) {
+            for (int c = Math.max(0, cx - 1); c <= Math.min(columns - 1, cx + 1); c++) {
+                final int cell = r * columns + c;
+                for (int j = start[cell]; j < start[cell + 1]; j++) {
+                    final int p = points[j];
+                    final double dx = xy[2 * p] - x;
+                    final double dy = xy[2 * p + 1] - y;
+                    final double d = dx * dx + dy * dy;
+                    if (d < bestDistance) {
+                        bestDistance = d;
+                        best = p;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private int cell(int point) {
+        return row(xy[2 * point + 1]) * columns + column(xy[2 * point]);
+    }
+
+    private int column(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) (x / radius)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) (y / radius)));
+    }
+}
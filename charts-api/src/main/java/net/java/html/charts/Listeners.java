@@ -26,91 +26,49 @@ package net.java.html.charts;
  * #L%
  */
 
-import java.util.Collections;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
 
-/** Listener support class.
+/** Listener support class. Listeners are kept in an array which is
+ * never modified - adding or removing a listener creates a new one.
+ * Delivering an event is then just a loop over the current array.
  */
-final class Listeners implements ChartListener {
-    final ChartListener listener;
-    final Listeners next;
+final class Listeners {
+    static final ChartListener[] EMPTY = new ChartListener[0];
 
-    Listeners(ChartListener listener, Listeners next) {
-        this.listener = listener;
-        this.next = next;
+    private Listeners() {
     }
 
-    @Override
-    public void chartClick(ChartEvent ev) {
-        assert false;
-    }
-
-    static ChartListener add(ChartListener current, ChartListener l) {
-        return add(current, l, true);
-    }
-    static ChartListener add(ChartListener current, ChartListener l, boolean checkDuplicities) {
+    static ChartListener[] add(ChartListener[] current, ChartListener l) {
         if (l == null) {
             return current;
         }
-        if (current == null) {
-            return l;
-        } else if (current instanceof Listeners) {
-            if (checkDuplicities) {
-                Listeners p = (Listeners) current;
-                while (p != null) {
-                    if (p.listener == l) {
-                        return current;
-                    }
-                    p = p.next;
-                }
-            }
-            return new Listeners(l, (Listeners)current);
-        } else {
-            if (current == l) {
+        for (ChartListener e : current) {
+            if (e == l) {
                 return current;
             }
-            return new Listeners(l, new Listeners(current, null));
         }
+        ChartListener[] arr = Arrays.copyOf(current, current.length + 1);
+        arr[current.length] = l;
+        return arr;
     }
 
-    static ChartListener remove(ChartListener current, ChartListener l) {
-        if (current == null || current == l) {
-            return null;
-        }
-        if (current instanceof Listeners) {
-            Listeners head = (Listeners) current;
-            if (head.listener == l) {
-                return head.next;
-            } else {
-                final ChartListener tail = remove(head.next, l);
-                if (tail == null) {
-                    return head.listener;
-                } if (tail instanceof Listeners) {
-                    return new Listeners(head.listener, (Listeners) tail);
-                } else {
-                    return new Listeners(head.listener, new Listeners(tail, null));
+    static ChartListener[] remove(ChartListener[] current, ChartListener l) {
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == l) {
+                if (current.length == 1) {
+                    return EMPTY;
                 }
+                ChartListener[] arr = new ChartListener[current.length - 1];
+                System.arraycopy(current, 0, arr, 0, i);
+                System.arraycopy(current, i + 1, arr, i, arr.length - i);
+                return arr;
             }
-        } else {
-            return current;
         }
+        return current;
     }
 
-    static List<ChartListener> all(ChartListener current) {
-        if (current == null) {
-            return Collections.emptyList();
-        }
-        if (current instanceof Listeners) {
-            LinkedList<ChartListener> all = new LinkedList<>();
-            Listeners l = (Listeners)current;
-            while (l != null) {
-                all.addFirst(l.listener);
-                l = l.next;
-            }
-            return all;
-        } else {
-            return Collections.nCopies(1, current);
-        }
+    static List<ChartListener> all(ChartListener[] current) {
+        return Arrays.asList(current);
     }
 }
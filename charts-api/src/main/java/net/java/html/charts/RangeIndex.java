@@ -0,0 +1,132 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+/** Segment tree over slots of {@link Columns}. Answers minimum,
+ * maximum, sum and count of values in a range of slots in
+ * <code>O(log n)</code> and is updated in <code>O(log n)</code> whenever
+ * a slot changes.
+ */
+final class RangeIndex {
+    private final int leaves;
+    private final double[] min;
+    private final double[] max;
+    private final double[] sum;
+    private final int[] count;
+
+    /** Builds the index for given columns.
+     *
+     * @param columns the values
+     * @param head slot of the first element
+     * @param size number of elements
+     */
+    RangeIndex(Columns columns, int head, int size) {
+        int n = 1;
+        while (n < columns.capacity()) {
+            n *= 2;
+        }
+        this.leaves = n;
+        this.min = new double[2 * n];
+        this.max = new double[2 * n];
+        this.sum = new double[2 * n];
+        this.count = new int[2 * n];
+        for (int i = 0; i < 2 * n; i++) {
+            min[i] = Double.POSITIVE_INFINITY;
+            max[i] = Double.NEGATIVE_INFINITY;
+        }
+        for (int i = 0; i < size; i++) {
+            int slot = head + i;
+            if (slot >= columns.capacity()) {
+                slot -= columns.capacity();
+            }
+            leaf(leaves + slot, columns.values, slot);
+        }
+        for (int i = leaves - 1; i > 0; i--) {
+            merge(i);
+        }
+    }
+
+    void update(int slot, double[][] values) {
+        leaf(leaves + slot, values, slot);
+        propagate(leaves + slot);
+    }
+
+    void clear(int slot) {
+        final int at = leaves + slot;
+        min[at] = Double.POSITIVE_INFINITY;
+        max[at] = Double.NEGATIVE_INFINITY;
+        sum[at] = 0;
+        count[at] = 0;
+        propagate(at);
+    }
+
+    /** Adds statistics of slots <code>from</code> to <code>to - 1</code>.
+     */
+    void query(int from, int to, Statistics stats) {
+        for (int l = from + leaves, r = to + leaves; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                stats.add(min[l], max[l], sum[l], count[l]);
+                l++;
+            }
+            if ((r & 1) == 1) {
+                r--;
+                stats.add(min[r], max[r], sum[r], count[r]);
+            }
+        }
+    }
+
+    private void leaf(int at, double[][] values, int slot) {
+        double lo = Double.POSITIVE_INFINITY;
+        double hi = Double.NEGATIVE_INFINITY;
+        double total = 0;
+        for (double[] column : values) {
+            final double v = column[slot];
+            lo = Math.min(lo, v);
+            hi = Math.max(hi, v);
+            total += v;
+        }
+        min[at] = lo;
+        max[at] = hi;
+        sum[at] = total;
+        count[at] = values.length;
+    }
+
+    private void propagate(int at) {
+        for (int i = at >> 1; i > 0; i >>= 1) {
+            merge(i);
+        }
+    }
+
+    private void merge(int i) {
+        final int l = 2 * i;
+        final int r = l + 1;
+        min[i] = Math.min(min[l], min[r]);
+        max[i] = Math.max(max[l], max[r]);
+        sum[i] = sum[l] + sum[r];
+        count[i] = count[l] + count[r];
+    }
+}
@@ -59,4 +59,25 @@ public final class Segment {
     public String getLabel() {
         return label;
     }
+
+    /** Value of this segment.
+     * @return number passed as <code>value</code> into the {@link #Segment(java.lang.String, double, net.java.html.charts.Color, net.java.html.charts.Color) constructor}
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /** Color of this segment.
+     * @return color passed as <code>color</code> into the {@link #Segment(java.lang.String, double, net.java.html.charts.Color, net.java.html.charts.Color) constructor}
+     */
+    public Color getColor() {
+        return color;
+    }
+
+    /** Color of this segment when highlighted.
+     * @return color passed as <code>highlight</code> into the {@link #Segment(java.lang.String, double, net.java.html.charts.Color, net.java.html.charts.Color) constructor}
+     */
+    public Color getHighlight() {
+        return highlight;
+    }
 }
@@ -0,0 +1,603 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+
+/** Writes a chart as SVG. The elements are written as soon as they are
+ * computed, nothing but the {@link Writer} holds the document. Path data
+ * are generated straight from the columns of the chart - a series longer
+ * than the plot is wide is reduced to the first, smallest, biggest and
+ * last value of each pixel column, so a million of values produce a file
+ * of the same size as a thousand of them.
+ * <p>
+ * Properties of the {@link Config} are interpreted with the defaults of
+ * <a href="http://www.chartjs.org">Chart.js</a>.
+ */
+final class SvgExport implements ChartLayout.Measure {
+    private static final String GRID = "rgba(0,0,0,0.05)";
+    private static final String LINE = "rgba(0,0,0,0.1)";
+    private static final String TEXT = "#666";
+
+    private final Chart<?, ?> chart;
+    private final Config config;
+    private final Writer out;
+    private final int width;
+    private final int height;
+    private final int fontSize;
+
+    SvgExport(Chart<?, ?> chart, Writer out, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Size: " + width + "x" + height);
+        }
+        this.chart = chart;
+        this.config = chart.getConfig();
+        this.out = out;
+        this.width = width;
+        this.height = height;
+        this.fontSize = (int) config.number("scaleFontSize", 12);
+    }
+
+    void write() throws IOException {
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" version=\"1.1\"");
+        attr("width", width);
+        attr("height", height);
+        out.write(" viewBox=\"0 0 " + width + " " + height + "\"");
+        out.write(" font-family=\"sans-serif\"");
+        attr("font-size", fontSize);
+        out.write(">\n");
+        switch (chart.getType()) {
+            case "Line":
+            case "TimeSeries":
+                lines();
+                break;
+            case "Bar":
+                bars();
+                break;
+            case "Radar":
+                radar();
+                break;
+            case "Pie":
+                pie(0);
+                break;
+            case "Doughnut":
+                pie(config.number("percentageInnerCutout", 50));
+                break;
+            case "PolarArea":
+                polar();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown type: " + chart.getType());
+        }
+        out.write("</svg>\n");
+    }
+
+    //
+    // charts with axes
+    //
+
+    private void lines() throws IOException {
+        final int n = chart.getData().size();
+        final int sets = chart.dataSets().length;
+        final ChartLayout layout = layout();
+        axes(layout);
+        final boolean fill = config.flag("datasetFill", true);
+        final boolean stroke = config.flag("datasetStroke", true);
+        final double radius = config.number("pointDotRadius", 4);
+        final boolean dots = config.flag("pointDot", true) && n * (2 * radius + 2) <= layout.getPlotWidth();
+        if (n == 0) {
+            return;
+        }
+        final double bottom = layout.getPlotY() + layout.getPlotHeight();
+        for (int s = 0; s < sets; s++) {
+            final Values.Set set = chart.dataSets()[s];
+            if (fill) {
+                out.write("<path");
+                paint("fill", set.getFillColor().toString());
+                out.write(" stroke=\"none\" d=\"M");
+                num(layout.x(0));
+                out.write(',');
+                num(bottom);
+                series(layout, s, false);
+                out.write('L');
+                num(layout.x(n - 1));
+                out.write(',');
+                num(bottom);
+                out.write("Z\"/>\n");
+            }
+            if (stroke) {
+                out.write("<path fill=\"none\"");
+                paint("stroke", set.getStrokeColor().toString());
+                attr("stroke-width", config.number("datasetStrokeWidth", 2));
+                out.write(" stroke-linejoin=\"round\" stroke-linecap=\"round\" d=\"");
+                series(layout, s, true);
+                out.write("\"/>\n");
+            }
+            if (dots) {
+                out.write("<g stroke=\"#fff\"");
+                paint("fill", set.getStrokeColor().toString());
+                out.write(">\n");
+                for (int i = 0; i < n; i++) {
+                    out.write("<circle");
+                    attr("cx", layout.x(i));
+                    attr("cy", layout.y(chart.valueAt(i, s)));
+                    attr("r", radius);
+                    out.write("/>\n");
+                }
+                out.write("</g>\n");
+            }
+        }
+    }
+
+    /** Writes the points of a series. When there are more values
+     * than pixels, only the extremes of each pixel column are written.
+     */
+    private void series(ChartLayout layout, int set, boolean move) throws IOException {
+        final int n = chart.getData().size();
+        final int columns = (int) layout.getPlotWidth();
+        if (n <= columns) {
+            for (int i = 0; i < n; i++) {
+                out.write(move && i == 0 ? 'M' : 'L');
+                point(layout.x(i), layout.y(chart.valueAt(i, set)));
+            }
+            return;
+        }
+        final double columnWidth = layout.getPlotWidth() / columns;
+        for (int c = 0; c < columns; c++) {
+            final int from = (int) ((long) c * n / columns);
+            final int to = (int) ((long) (c + 1) * n / columns);
+            int minAt = from;
+            int maxAt = from;
+            double min = chart.valueAt(from, set);
+            double max = min;
+            for (int i = from + 1; i < to; i++) {
+                final double v = chart.valueAt(i, set);
+                if (v < min) {
+                    min = v;
+                    minAt = i;
+                } else if (v > max) {
+                    max = v;
+                    maxAt = i;
+                }
+            }
+            final double x = layout.getPlotX() + (c + 0.5) * columnWidth;
+            out.write(move && c == 0 ? 'M' : 'L');
+            point(x, layout.y(chart.valueAt(from, set)));
+            final int lower = Math.min(minAt, maxAt);
+            final int upper = Math.max(minAt, maxAt);
+            if (lower != from) {
+                out.write('L');
+                point(x, layout.y(chart.valueAt(lower, set)));
+            }
+            if (upper != lower) {
+                out.write('L');
+                point(x, layout.y(chart.valueAt(upper, set)));
+            }
+            if (to - 1 != upper) {
+                out.write('L');
+                point(x, layout.y(chart.valueAt(to - 1, set)));
+            }
+        }
+    }
+
+    private void bars() throws IOException {
+        final int n = chart.getData().size();
+        final Values.Set[] sets = chart.dataSets();
+        final ChartLayout layout = layout();
+        axes(layout);
+        final double base = layout.y(Math.max(layout.getStart(), Math.min(0, layout.getEnd())));
+        final int columns = (int) layout.getPlotWidth();
+        if (n > columns) {
+            final double columnWidth = layout.getPlotWidth() / columns;
+            for (int s = 0; s < sets.length; s++) {
+                out.write("<path stroke=\"none\"");
+                paint("fill", sets[s].getFillColor().toString());
+                out.write(" d=\"");
+                for (int c = 0; c < columns; c++) {
+                    final int from = (int) ((long) c * n / columns);
+                    final int to = (int) ((long) (c + 1) * n / columns);
+                    double min = 0;
+                    double max = 0;
+                    for (int i = from; i < to; i++) {
+                        min = Math.min(min, chart.valueAt(i, s));
+                        max = Math.max(max, chart.valueAt(i, s));
+                    }
+                    final double top = Math.min(base, layout.y(max));
+                    out.write('M');
+                    point(layout.getPlotX() + c * columnWidth, top);
+                    out.write('h');
+                    num(columnWidth);
+                    out.write('V');
+                    num(Math.max(base, layout.y(min)));
+                    out.write('h');
+                    num(-columnWidth);
+                    out.write('Z');
+                }
+                out.write("\"/>\n");
+            }
+            return;
+        }
+        final double group = layout.getPlotWidth() / Math.max(1, n);
+        final double valueSpacing = Math.min(config.number("barValueSpacing", 5), group / 4);
+        final double setSpacing = config.number("barDatasetSpacing", 1);
+        final double barWidth = Math.max(1, (group - 2 * valueSpacing - setSpacing * (sets.length - 1)) / sets.length);
+        final boolean showStroke = config.flag("barShowStroke", true);
+        for (int s = 0; s < sets.length; s++) {
+            out.write("<g");
+            paint("fill", sets[s].getFillColor().toString());
+            if (showStroke) {
+                paint("stroke", sets[s].getStrokeColor().toString());
+                attr("stroke-width", config.number("barStrokeWidth", 2));
+            }
+            out.write(">\n");
+            for (int i = 0; i < n; i++) {
+                final double y = layout.y(chart.valueAt(i, s));
+                out.write("<rect");
+                attr("x", layout.getPlotX() + i * group + valueSpacing + s * (barWidth + setSpacing));
+                attr("y", Math.min(y, base));
+                attr("width", barWidth);
+                attr("height", Math.abs(base - y));
+                out.write("/>\n");
+            }
+            out.write("</g>\n");
+        }
+    }
+
+    /** Computes the layout. Values are read in a single pass over the data.
+     */
+    private ChartLayout layout() {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        final int n = chart.getData().size();
+        final int sets = chart.dataSets() == null ? 1 : chart.dataSets().length;
+        for (int i = 0; i < n; i++) {
+            for (int s = 0; s < sets; s++) {
+                final double v = chart.dataSets() == null ? ((Segment) chart.getData().get(i)).value : chart.valueAt(i, s);
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+        }
+        return ChartLayout.create(chart, width, height, min, max, this);
+    }
+
+    /** Writes the scale and the labels.
+     */
+    private void axes(ChartLayout layout) throws IOException {
+        if (!config.flag("showScale", true)) {
+            return;
+        }
+        final boolean showLabels = config.flag("scaleShowLabels", true);
+        final int steps = layout.getSteps();
+        final double left = layout.getPlotX();
+        final double bottom = layout.getPlotY() + layout.getPlotHeight();
+        final boolean grid = config.flag("scaleShowGridLines", true);
+        out.write("<g fill=\"none\"");
+        attr("stroke-width", config.number("scaleGridLineWidth", 1));
+        out.write(">\n");
+        for (int i = 0; i <= steps; i++) {
+            if (grid || i == 0) {
+                final double y = bottom - layout.getPlotHeight() * i / steps;
+                out.write("<path");
+                paint("stroke", i == 0 ? config.string("scaleLineColor", LINE) : config.string("scaleGridLineColor", GRID));
+                out.write(" d=\"M");
+                point(left, y);
+                out.write('H');
+                num(left + layout.getPlotWidth());
+                out.write("\"/>\n");
+            }
+        }
+        out.write("</g>\n");
+        out.write("<g");
+        paint("fill", config.string("scaleFontColor", TEXT));
+        out.write(">\n");
+        if (showLabels) {
+            for (int i = 0; i <= steps; i++) {
+                text(left - 10, bottom - layout.getPlotHeight() * i / steps + fontSize / 3.0, "end", layout.getLabel(i));
+            }
+        }
+        final int n = chart.getData().size();
+        final int every = layout.getLabelInterval();
+        for (int i = 0; i < n; i += every) {
+            text(layout.x(i), bottom + 5 + fontSize, "middle", layout.getElementLabel(i));
+        }
+        out.write("</g>\n");
+    }
+
+    //
+    // charts around a center
+    //
+
+    private void radar() throws IOException {
+        final int n = chart.getData().size();
+        final Values.Set[] sets = chart.dataSets();
+        final ChartLayout layout = layout();
+        final double cx = width / 2.0;
+        final double cy = height / 2.0;
+        final double radius = layout.getRadius();
+        if (n == 0) {
+            return;
+        }
+        out.write("<g fill=\"none\"");
+        paint("stroke", config.string("scaleLineColor", LINE));
+        out.write(">\n");
+        for (int step = 1; step <= layout.getSteps(); step++) {
+            out.write("<path d=\"");
+            polygon(cx, cy, radius * step / layout.getSteps(), n, null, -1);
+            out.write("\"/>\n");
+        }
+        out.write("<path");
+        paint("stroke", config.string("angleLineColor", LINE));
+        out.write(" d=\"");
+        for (int i = 0; i < n; i++) {
+            out.write('M');
+            point(cx, cy);
+            out.write('L');
+            point(cx + radius * Math.cos(angle(i, n)), cy + radius * Math.sin(angle(i, n)));
+        }
+        out.write("\"/>\n</g>\n<g");
+        paint("fill", config.string("pointLabelFontColor", TEXT));
+        out.write(">\n");
+        for (int i = 0; i < n; i++) {
+            final double a = angle(i, n);
+            final double cos = Math.cos(a);
+            final String anchor = Math.abs(cos) < 0.01 ? "middle" : cos > 0 ? "start" : "end";
+            text(cx + (radius + 5) * cos, cy + (radius + 5) * Math.sin(a) + (Math.sin(a) + 1) / 2 * fontSize * 0.8, anchor, layout.getElementLabel(i));
+        }
+        out.write("</g>\n");
+        final boolean fill = config.flag("datasetFill", true);
+        final boolean stroke = config.flag("datasetStroke", true);
+        for (int s = 0; s < sets.length; s++) {
+            out.write("<path");
+            paint("fill", fill ? sets[s].getFillColor().toString() : "none");
+            if (stroke) {
+                paint("stroke", sets[s].getStrokeColor().toString());
+                attr("stroke-width", config.number("datasetStrokeWidth", 2));
+            }
+            out.write(" d=\"");
+            polygon(cx, cy, radius, n, layout, s);
+            out.write("\"/>\n");
+        }
+    }
+
+    private void polygon(double cx, double cy, double radius, int n, ChartLayout layout, int set) throws IOException {
+        for (int i = 0; i < n; i++) {
+            double r = radius;
+            if (set >= 0) {
+                r = radius * Math.max(0, layout.ratio(chart.valueAt(i, set)));
+            }
+            out.write(i == 0 ? 'M' : 'L');
+            point(cx + r * Math.cos(angle(i, n)), cy + r * Math.sin(angle(i, n)));
+        }
+        out.write('Z');
+    }
+
+    private static double angle(int index, int n) {
+        return -Math.PI / 2 + 2 * Math.PI * index / n;
+    }
+
+    private void pie(double cutoutPercentage) throws IOException {
+        double total = 0;
+        for (Object o : chart.getData()) {
+            total += Math.max(0, ((Segment) o).value);
+        }
+        final double radius = ChartLayout.create(chart, width, height, 0, 0, this).getRadius();
+        final double inner = radius * Math.max(0, Math.min(100, cutoutPercentage)) / 100;
+        double start = -Math.PI / 2;
+        segmentsStart();
+        for (Object o : chart.getData()) {
+            final Segment s = (Segment) o;
+            final double extent = total <= 0 ? 0 : 2 * Math.PI * Math.max(0, s.value) / total;
+            segment(s, radius, inner, start, extent);
+            start += extent;
+        }
+        out.write("</g>\n");
+    }
+
+    private void polar() throws IOException {
+        final int n = chart.getData().size();
+        final ChartLayout layout = layout();
+        final double radius = layout.getRadius();
+        double start = -Math.PI / 2;
+        segmentsStart();
+        for (Object o : chart.getData()) {
+            final Segment s = (Segment) o;
+            segment(s, radius * Math.max(0, Math.min(1, layout.ratio(s.value))), 0, start, 2 * Math.PI / n);
+            start += 2 * Math.PI / n;
+        }
+        out.write("</g>\n");
+        if (config.flag("showScale", true)) {
+            out.write("<g fill=\"none\"");
+            paint("stroke", config.string("scaleLineColor", LINE));
+            out.write(">\n");
+            for (int step = 1; step <= layout.getSteps(); step++) {
+                out.write("<circle");
+                attr("cx", width / 2.0);
+                attr("cy", height / 2.0);
+                attr("r", radius * step / layout.getSteps());
+                out.write("/>\n");
+            }
+            out.write("</g>\n");
+        }
+    }
+
+    private void segmentsStart() throws IOException {
+        out.write("<g");
+        if (config.flag("segmentShowStroke", true)) {
+            paint("stroke", config.string("segmentStrokeColor", "#fff"));
+            attr("stroke-width", config.number("segmentStrokeWidth", 2));
+        }
+        out.write(">\n");
+    }
+
+    private void segment(Segment s, double radius, double inner, double start, double extent) throws IOException {
+        final double cx = width / 2.0;
+        final double cy = height / 2.0;
+        out.write("<path");
+        paint("fill", s.color.toString());
+        out.write(" d=\"");
+        if (extent >= 2 * Math.PI - 1e-9) {
+            // full circle - two halves, an arc needs distinct ends
+            circle(cx, cy, radius, 1);
+            if (inner > 0) {
+                circle(cx, cy, inner, 0);
+            }
+        } else {
+            final int large = extent > Math.PI ? 1 : 0;
+            out.write('M');
+            point(cx + radius * Math.cos(start), cy + radius * Math.sin(start));
+            arc(radius, large, 1, cx + radius * Math.cos(start + extent), cy + radius * Math.sin(start + extent));
+            if (inner > 0) {
+                out.write('L');
+                point(cx + inner * Math.cos(start + extent), cy + inner * Math.sin(start + extent));
+                arc(inner, large, 0, cx + inner * Math.cos(start), cy + inner * Math.sin(start));
+            } else {
+                out.write('L');
+                point(cx, cy);
+            }
+            out.write('Z');
+        }
+        out.write("\"/>\n");
+    }
+
+    private void circle(double cx, double cy, double r, int sweep) throws IOException {
+        out.write('M');
+        point(cx, cy - r);
+        arc(r, 1, sweep, cx, cy + r);
+        arc(r, 1, sweep, cx, cy - r);
+        out.write('Z');
+    }
+
+    private void arc(double r, int large, int sweep, double x, double y) throws IOException {
+        out.write('A');
+        num(r);
+        out.write(',');
+        num(r);
+        out.write(" 0 " + large + "," + sweep + " ");
+        point(x, y);
+    }
+
+    //
+    // output
+    //
+
+    /** Estimates the width of a text, the viewer picks the actual font.
+     */
+    @Override
+    public double width(String text) {
+        return Math.ceil(text.length() * fontSize * 0.6);
+    }
+
+    private void text(double x, double y, String anchor, String text) throws IOException {
+        out.write("<text");
+        attr("x", x);
+        attr("y", y);
+        out.write(" text-anchor=\"" + anchor + "\">");
+        escape(text);
+        out.write("</text>\n");
+    }
+
+    private void point(double x, double y) throws IOException {
+        num(x);
+        out.write(',');
+        num(y);
+    }
+
+    /** Writes a number rounded to a tenth of a pixel.
+     */
+    private void num(double value) throws IOException {
+        long tenths = Math.round(value * 10);
+        if (tenths < 0) {
+            out.write('-');
+            tenths = -tenths;
+        }
+        out.write(Long.toString(tenths / 10));
+        final int fraction = (int) (tenths % 10);
+        if (fraction != 0) {
+            out.write('.');
+            out.write('0' + fraction);
+        }
+    }
+
+    private void attr(String name, double value) throws IOException {
+        out.write(' ');
+        out.write(name);
+        out.write("=\"");
+        num(value);
+        out.write('"');
+    }
+
+    /** Writes a color attribute. Colors with transparency are split into
+     * a color and an opacity, as not all SVG viewers understand <code>rgba</code>.
+     */
+    private void paint(String name, String color) throws IOException {
+        String c = color.trim();
+        String opacity = null;
+        if (c.startsWith("rgba(") && c.endsWith(")")) {
+            final String[] parts = c.substring(5, c.length() - 1).split(",");
+            if (parts.length == 4) {
+                c = "rgb(" + parts[0].trim() + "," + parts[1].trim() + "," + parts[2].trim() + ")";
+                opacity = parts[3].trim();
+            }
+        }
+        out.write(' ');
+        out.write(name);
+        out.write("=\"");
+        escape(c);
+        out.write('"');
+        if (opacity != null) {
+            out.write(' ');
+            out.write(name);
+            out.write("-opacity=\"");
+            escape(opacity);
+            out.write('"');
+        }
+    }
+
+    private void escape(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            final char ch = text.charAt(i);
+            switch (ch) {
+                case '<':
+                    out.write("&lt;");
+                    break;
+                case '>':
+                    out.write("&gt;");
+                    break;
+                case '&':
+                    out.write("&amp;");
+                    break;
+                case '"':
+                    out.write("&quot;");
+                    break;
+                default:
+                    out.write(ch);
+            }
+        }
+    }
+}
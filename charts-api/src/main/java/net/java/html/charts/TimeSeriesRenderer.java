@@ -0,0 +1,118 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.List;
+import net.java.html.js.JavaScriptBody;
+import net.java.html.js.JavaScriptResource;
+
+/** Draws {@link Chart#createTimeSeries(net.java.html.charts.Values.Set...) time series}
+ * directly onto the canvas. The values are kept in typed arrays together
+ * with minimums and maximums of blocks of 2, 4, 8, ... values, so
+ * a repaint costs the same regardless of the number of values - it draws
+ * at most two vertices per pixel column and one path per data set.
+ * Panning (drag) and zooming (wheel) stay in the browser.
+ */
+@JavaScriptResource("timeseries.js")
+final class TimeSeriesRenderer extends ChartRenderer {
+    static final TimeSeriesRenderer DEFAULT = new TimeSeriesRenderer();
+
+    private TimeSeriesRenderer() {
+    }
+
+    @Override
+    protected boolean accepts(String type) {
+        return "TimeSeries".equals(type);
+    }
+
+    @Override
+    protected Object create(Chart<?, ?> chart, String id, Object config) {
+        final Values.Set[] dataSets = chart.dataSets();
+        Columns columns = chart.displayedColumns();
+        int count = chart.displayedCount();
+        Object[] sets = new Object[dataSets.length];
+        for (int i = 0; i < dataSets.length; i++) {
+            final Object[] clone = dataSets[i].raw.clone();
+            clone[5] = Doubles.transfer(columns.values[i], count);
+            sets[i] = clone;
+        }
+        Object graph = init(chart, id, config, sets, columns.labels, count);
+        track(graph, chart.hover());
+        return graph;
+    }
+
+    @Override
+    protected void update(Chart<?, ?> chart, Object graph, List<Change> changes) {
+        apply(graph, Change.encode(changes));
+    }
+
+    @Override
+    protected void destroy(Chart<?, ?> chart, Object graph) {
+        destroy(graph);
+    }
+
+    @Override
+    protected void track(Chart<?, ?> chart, Object graph, boolean hover, boolean hitTest) {
+        track(graph, hover);
+    }
+
+    @JavaScriptBody(args = { "self", "id", "config", "sets", "names", "count" }, javacall = true, body = Doubles.DECODE +
+        "var canvas = document.getElementById(id);\n" +
+        "var data = [];\n" +
+        "for (var i = 0; i < sets.length; i++) {\n" +
+        "  data.push(decode(sets[i][5], count));\n" +
+        "}\n" +
+        "var callbacks = {\n" +
+        "  'click' : function(mods, info) {\n" +
+        "    self.@net.java.html.charts.Chart::onClick([Ljava/lang/Object;[Ljava/lang/Object;)(mods, info);\n" +
+        "  },\n" +
+        "  'hover' : function(mods, info) {\n" +
+        "    self.@net.java.html.charts.Chart::onHover([Ljava/lang/Object;[Ljava/lang/Object;)(mods, info);\n" +
+        "  }\n" +
+        "};\n" +
+        "var TimeSeries = window['DukeScriptTimeSeries'];\n" +
+        "return new TimeSeries(canvas, config, sets,\n" +
+        "  Array.prototype.slice.call(names, 0, count), data, callbacks\n" +
+        ");\n"
+    )
+    private static native Object init(Chart<?, ?> self, String id, Object config, Object[] sets, String[] names, int count);
+
+    @JavaScriptBody(args = { "graph", "ops" }, wait4js = false, body =
+        "graph['apply'](ops);\n"
+    )
+    private static native void apply(Object graph, Object[] ops);
+
+    @JavaScriptBody(args = { "graph", "hover" }, wait4js = false, body =
+        "graph['track'](hover);\n"
+    )
+    private static native void track(Object graph, boolean hover);
+
+    @JavaScriptBody(args = { "graph" }, wait4js = false, body =
+        "graph['destroy']();\n"
+    )
+    private static native void destroy(Object graph);
+}
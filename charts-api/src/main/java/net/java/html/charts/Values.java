@@ -26,6 +26,8 @@ package net.java.html.charts;
  * #L%
  */
 
+import java.util.Arrays;
+
 /** Values in a {@link Chart#createLine(net.java.html.charts.Values.Set...) line},
  * {@link Chart#createRadar(net.java.html.charts.Values.Set...) radar} or
  * {@link Chart#createBar(net.java.html.charts.Values.Set...) bar} chart.
@@ -54,6 +56,46 @@ public final class Values {
         return label;
     }
 
+    /** Number of values, one for each {@link Set}.
+     * @return length of the <code>values</code> passed into the {@link #Values(java.lang.String, double...) constructor}
+     */
+    public int getCount() {
+        return values.length;
+    }
+
+    /** Value for given {@link Set}.
+     * @param set index of the set
+     * @return the value passed into the {@link #Values(java.lang.String, double...) constructor}
+     * @throws IndexOutOfBoundsException if there is no such value
+     */
+    public double getValue(int set) {
+        return values[set];
+    }
+
+    /** Two values are equal if they have the same label and the same
+     * values.
+     *
+     * @param obj the other object
+     * @return <code>true</code> if the values are equal
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Values)) {
+            return false;
+        }
+        Values other = (Values) obj;
+        return (label == null ? other.label == null : label.equals(other.label))
+            && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return (label == null ? 0 : label.hashCode()) * 31 + Arrays.hashCode(values);
+    }
+
     /** Set of {@link Values values} for 
      * {@link Chart#createLine(net.java.html.charts.Values.Set...) line},
      * {@link Chart#createRadar(net.java.html.charts.Values.Set...) radar} or
@@ -73,5 +115,26 @@ public final class Values {
                 label, fillColor.color, strokeColor.color, null, null, null
             };
         }
+
+        /** Label of the set.
+         * @return string passed as <code>label</code> into the {@link #Set(java.lang.String, net.java.html.charts.Color, net.java.html.charts.Color) constructor}
+         */
+        public String getLabel() {
+            return (String) raw[0];
+        }
+
+        /** Color to fill the values with.
+         * @return color equal to <code>fillColor</code> passed into the {@link #Set(java.lang.String, net.java.html.charts.Color, net.java.html.charts.Color) constructor}
+         */
+        public Color getFillColor() {
+            return Color.valueOf((String) raw[1]);
+        }
+
+        /** Color to stroke the values with.
+         * @return color equal to <code>strokeColor</code> passed into the {@link #Set(java.lang.String, net.java.html.charts.Color, net.java.html.charts.Color) constructor}
+         */
+        public Color getStrokeColor() {
+            return Color.valueOf((String) raw[2]);
+        }
     }
 }
@@ -0,0 +1,589 @@
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+/*
+ * Time series drawn directly onto a canvas. Values of each data set live in
+ * a flat Float64Array accompanied by a pyramid of minimums and maximums of
+ * blocks of 2, 4, 8, ... values. Drawing picks the level with about one block
+ * per pixel, so a frame costs the same for a thousand and for a million values
+ * and each data set is a single path.
+ *
+ * Elements are addressed by absolute slots; the displayed ones are those
+ * between start and end. Removing from the start just moves start, the
+ * arrays are compacted when they fill up.
+ */
+(function (global) {
+    'use strict';
+
+    var LEFT = 50;
+    var BOTTOM = 20;
+    var TOP = 10;
+    var RIGHT = 10;
+
+    function Column(capacity) {
+        this.alloc(capacity);
+    }
+
+    Column.prototype.alloc = function (capacity) {
+        var old = this.raw;
+        this.raw = new Float64Array(capacity);
+        this.mins = [];
+        this.maxs = [];
+        for (var n = (capacity + 1) >> 1; ; n = (n + 1) >> 1) {
+            this.mins.push(new Float64Array(n));
+            this.maxs.push(new Float64Array(n));
+            if (n === 1) {
+                break;
+            }
+        }
+        return old;
+    };
+
+    /* recomputes blocks of all levels covering slots from..to-1 */
+    Column.prototype.rebuild = function (from, to, start, end) {
+        if (to <= from) {
+            return;
+        }
+        for (var l = 1; l <= this.mins.length; l++) {
+            var mins = this.mins[l - 1];
+            var maxs = this.maxs[l - 1];
+            var last = Math.min((to - 1) >> l, mins.length - 1);
+            for (var b = from >> l; b <= last; b++) {
+                var mn = Infinity;
+                var mx = -Infinity;
+                for (var c = 2 * b; c <= 2 * b + 1; c++) {
+                    var lo = c << (l - 1);
+                    var hi = (c + 1) << (l - 1);
+                    if (lo >= end || hi <= start) {
+                        continue;
+                    }
+                    var a, z;
+                    if (l === 1) {
+                        a = z = this.raw[c];
+                    } else {
+                        a = this.mins[l - 2][c];
+                        z = this.maxs[l - 2][c];
+                    }
+                    if (a < mn) {
+                        mn = a;
+                    }
+                    if (z > mx) {
+                        mx = z;
+                    }
+                }
+                mins[b] = mn;
+                maxs[b] = mx;
+            }
+        }
+    };
+
+    /* widens ext[0]..ext[1] by values in slots a..b-1 */
+    Column.prototype.extent = function (a, b, ext) {
+        var l = 0;
+        var self = this;
+        function take(i) {
+            var mn, mx;
+            if (l === 0) {
+                mn = mx = self.raw[i];
+            } else {
+                mn = self.mins[l - 1][i];
+                mx = self.maxs[l - 1][i];
+            }
+            if (mn < ext[0]) {
+                ext[0] = mn;
+            }
+            if (mx > ext[1]) {
+                ext[1] = mx;
+            }
+        }
+        while (a < b) {
+            if (a & 1) {
+                take(a++);
+            }
+            if (b & 1) {
+                take(--b);
+            }
+            a >>= 1;
+            b >>= 1;
+            l++;
+        }
+    };
+
+    function TimeSeries(canvas, options, sets, labels, data, callbacks) {
+        var count = labels.length;
+        var capacity = 16;
+        while (capacity < count * 2) {
+            capacity *= 2;
+        }
+        this.canvas = canvas;
+        this.ctx = canvas.getContext('2d');
+        // the options may be shared with other charts, 'scale' updates a copy
+        this.options = {};
+        for (var key in options) {
+            this.options[key] = options[key];
+        }
+        this.sets = sets;
+        this.callbacks = callbacks;
+        this.capacity = capacity;
+        this.start = 0;
+        this.end = count;
+        this.labels = labels.slice(0, count);
+        this.columns = [];
+        for (var j = 0; j < sets.length; j++) {
+            var col = new Column(capacity);
+            col.raw.set(data[j]);
+            col.rebuild(0, count, 0, count);
+            this.columns.push(col);
+        }
+        this.view = null;
+        this.xs = new Float64Array(0);
+        this.ys = new Float64Array(0);
+        this.hover = false;
+        this.hovered = -1;
+        this.listen();
+        this.draw();
+    }
+
+    TimeSeries.prototype.size = function () {
+        return this.end - this.start;
+    };
+
+    TimeSeries.prototype.ensure = function (extra) {
+        if (this.end + extra <= this.capacity) {
+            return;
+        }
+        var size = this.size();
+        var capacity = this.capacity;
+        while (capacity < (size + extra) * 2) {
+            capacity *= 2;
+        }
+        for (var j = 0; j < this.columns.length; j++) {
+            var col = this.columns[j];
+            var old = col.alloc(capacity);
+            col.raw.set(old.subarray(this.start, this.end), 0);
+            col.rebuild(0, size, 0, size);
+        }
+        this.labels = this.labels.slice(this.start, this.end);
+        this.capacity = capacity;
+        this.start = 0;
+        this.end = size;
+    };
+
+    TimeSeries.prototype.insert = function (index, label, values) {
+        this.ensure(1);
+        var at = index < 0 ? this.end : this.start + index;
+        for (var j = 0; j < this.columns.length; j++) {
+            var col = this.columns[j];
+            if (at < this.end) {
+                col.raw.set(col.raw.subarray(at, this.end), at + 1);
+            }
+            col.raw[at] = values[j];
+        }
+        if (at < this.end) {
+            this.labels.splice(at, 0, label);
+        } else {
+            this.labels[at] = label;
+        }
+        this.end++;
+        this.touch(at, this.end);
+    };
+
+    TimeSeries.prototype.remove = function (index, count) {
+        count = Math.min(count, this.size() - index);
+        if (count <= 0) {
+            return;
+        }
+        if (index === 0) {
+            this.start += count;
+            this.touch(this.start, this.start + 1);
+            return;
+        }
+        var at = this.start + index;
+        for (var j = 0; j < this.columns.length; j++) {
+            var col = this.columns[j];
+            col.raw.set(col.raw.subarray(at + count, this.end), at);
+        }
+        this.labels.splice(at, count);
+        this.end -= count;
+        this.touch(Math.min(at, this.end - 1), this.end);
+    };
+
+    TimeSeries.prototype.set = function (index, label, values) {
+        var at = this.start + index;
+        for (var j = 0; j < this.columns.length; j++) {
+            this.columns[j].raw[at] = values[j];
+        }
+        this.labels[at] = label;
+        this.touch(at, at + 1);
+    };
+
+    TimeSeries.prototype.touch = function (from, to) {
+        if (this.end <= this.start) {
+            return;
+        }
+        for (var j = 0; j < this.columns.length; j++) {
+            this.columns[j].rebuild(Math.max(from, this.start), to, this.start, this.end);
+        }
+    };
+
+    TimeSeries.prototype['apply'] = function (ops) {
+        for (var i = 0; i < ops.length; i += 6) {
+            var index = ops[i + 1];
+            var data = ops[i + 3];
+            switch (ops[i]) {
+                case 'add':
+                    this.insert(index, ops[i + 2], data);
+                    break;
+                case 'remove':
+                    this.remove(index, data);
+                    break;
+                case 'set':
+                    this.set(index, ops[i + 2], data);
+                    break;
+                case 'scale':
+                    this.options['scaleOverride'] = true;
+                    this.options['scaleSteps'] = index;
+                    this.options['scaleStepWidth'] = data[0];
+                    this.options['scaleStartValue'] = data[1];
+                    break;
+            }
+        }
+        this.requestDraw();
+    };
+
+    /* visible range [lo, hi) relative to start */
+    TimeSeries.prototype.range = function () {
+        var size = this.size();
+        var v = this.view;
+        if (!v) {
+            return [0, size];
+        }
+        var n = Math.min(v.n, size);
+        var lo = v.follow ? size - n : Math.max(0, Math.min(v.lo, size - n));
+        return [lo, lo + n];
+    };
+
+    TimeSeries.prototype.zoomTo = function (lo, n) {
+        var size = this.size();
+        n = Math.max(Math.min(10, size), Math.min(Math.round(n), size));
+        lo = Math.max(0, Math.min(Math.round(lo), size - n));
+        this.view = n >= size ? null : { 'lo': lo, 'n': n, 'follow': lo + n >= size };
+        this.requestDraw();
+    };
+
+    TimeSeries.prototype.requestDraw = function () {
+        if (this.scheduled || this.destroyed) {
+            return;
+        }
+        this.scheduled = true;
+        var self = this;
+        var raf = global['requestAnimationFrame'];
+        var frame = function () {
+            self.scheduled = false;
+            if (!self.destroyed) {
+                self.draw();
+            }
+        };
+        if (raf) {
+            raf.call(global, frame);
+        } else {
+            setTimeout(frame, 16);
+        }
+    };
+
+    TimeSeries.prototype.yRange = function (lo, hi) {
+        var o = this.options;
+        if (o['scaleOverride']) {
+            var from = o['scaleStartValue'];
+            return [from, from + o['scaleSteps'] * o['scaleStepWidth']];
+        }
+        var ext = [Infinity, -Infinity];
+        for (var j = 0; j < this.columns.length; j++) {
+            this.columns[j].extent(this.start + lo, this.start + hi, ext);
+        }
+        if (!(ext[0] <= ext[1])) {
+            return [0, 1];
+        }
+        if (ext[0] === ext[1]) {
+            return [ext[0] - 1, ext[1] + 1];
+        }
+        var pad = (ext[1] - ext[0]) * 0.05;
+        return [ext[0] - pad, ext[1] + pad];
+    };
+
+    TimeSeries.prototype.draw = function () {
+        var ctx = this.ctx;
+        var w = this.canvas.width;
+        var h = this.canvas.height;
+        var plotW = Math.max(1, w - LEFT - RIGHT);
+        var plotH = Math.max(1, h - TOP - BOTTOM);
+        var r = this.range();
+        var lo = r[0];
+        var hi = r[1];
+        var y = this.yRange(lo, hi);
+        var scaleY = plotH / (y[1] - y[0]);
+        var bottom = TOP + plotH;
+        ctx.clearRect(0, 0, w, h);
+        this.axes(ctx, lo, hi, y, plotW, plotH);
+        var n = hi - lo;
+        if (n <= 0) {
+            return;
+        }
+        var scaleX = plotW / Math.max(1, n - 1);
+        var level = 0;
+        while ((n >> level) > plotW) {
+            level++;
+        }
+        var max = 2 * (((hi - 1) >> level) - (lo >> level) + 1);
+        if (this.xs.length < max) {
+            this.xs = new Float64Array(max);
+            this.ys = new Float64Array(max);
+        }
+        var xs = this.xs;
+        var ys = this.ys;
+        var fill = this.options['datasetFill'] !== false;
+        ctx.save();
+        ctx.beginPath();
+        ctx.rect(LEFT, TOP, plotW, plotH);
+        ctx.clip();
+        ctx.lineWidth = this.options['datasetStrokeWidth'] || 2;
+        for (var j = 0; j < this.columns.length; j++) {
+            var col = this.columns[j];
+            var cnt = 0;
+            if (level === 0) {
+                for (var i = lo; i < hi; i++) {
+                    xs[cnt] = LEFT + (i - lo) * scaleX;
+                    ys[cnt++] = bottom - (col.raw[this.start + i] - y[0]) * scaleY;
+                }
+            } else {
+                var mins = col.mins[level - 1];
+                var maxs = col.maxs[level - 1];
+                var half = 1 << (level - 1);
+                var first = (this.start + lo) >> level;
+                var last = (this.start + hi - 1) >> level;
+                for (var b = first; b <= last; b++) {
+                    var center = (b << level) + half - this.start;
+                    var x = LEFT + (Math.min(hi - 1, Math.max(lo, center)) - lo) * scaleX;
+                    xs[cnt] = x;
+                    ys[cnt++] = bottom - (mins[b] - y[0]) * scaleY;
+                    xs[cnt] = x;
+                    ys[cnt++] = bottom - (maxs[b] - y[0]) * scaleY;
+                }
+            }
+            var set = this.sets[j];
+            if (fill && cnt > 0) {
+                ctx.beginPath();
+                ctx.moveTo(xs[0], bottom);
+                for (var k = 0; k < cnt; k++) {
+                    ctx.lineTo(xs[k], ys[k]);
+                }
+                ctx.lineTo(xs[cnt - 1], bottom);
+                ctx.closePath();
+                ctx.fillStyle = set[1];
+                ctx.fill();
+            }
+            ctx.beginPath();
+            for (var k = 0; k < cnt; k++) {
+                if (k === 0) {
+                    ctx.moveTo(xs[k], ys[k]);
+                } else {
+                    ctx.lineTo(xs[k], ys[k]);
+                }
+            }
+            ctx.strokeStyle = set[2];
+            ctx.stroke();
+        }
+        ctx.restore();
+    };
+
+    TimeSeries.prototype.axes = function (ctx, lo, hi, y, plotW, plotH) {
+        var o = this.options;
+        var steps = o['scaleOverride'] ? o['scaleSteps'] : 4;
+        ctx.save();
+        ctx.strokeStyle = o['scaleGridLineColor'] || 'rgba(0,0,0,.05)';
+        ctx.fillStyle = o['scaleFontColor'] || '#666';
+        ctx.font = (o['scaleFontSize'] || 12) + 'px ' + (o['scaleFontFamily'] || 'sans-serif');
+        ctx.textAlign = 'right';
+        ctx.textBaseline = 'middle';
+        ctx.beginPath();
+        for (var i = 0; i <= steps; i++) {
+            var value = y[0] + (y[1] - y[0]) * i / steps;
+            var py = Math.round(TOP + plotH - plotH * i / steps) + 0.5;
+            ctx.moveTo(LEFT, py);
+            ctx.lineTo(LEFT + plotW, py);
+            ctx.fillText(format(value), LEFT - 5, py);
+        }
+        ctx.stroke();
+        ctx.textBaseline = 'top';
+        var n = hi - lo;
+        var marks = n > 2 ? [lo, lo + (n >> 1), hi - 1] : n > 0 ? [lo] : [];
+        for (var m = 0; m < marks.length; m++) {
+            var label = this.labels[this.start + marks[m]];
+            ctx.textAlign = m === 0 ? 'left' : m === marks.length - 1 ? 'right' : 'center';
+            var px = LEFT + (n > 1 ? (marks[m] - lo) * plotW / (n - 1) : 0);
+            ctx.fillText(label === undefined || label === null ? '' : String(label), px, TOP + plotH + 4);
+        }
+        ctx.restore();
+    };
+
+    function format(value) {
+        var abs = Math.abs(value);
+        if (abs >= 1e6 || (abs > 0 && abs < 1e-3)) {
+            return value.toExponential(2);
+        }
+        return String(Math.round(value * 100) / 100);
+    }
+
+    /* index relative to start of the element nearest to the horizontal position */
+    TimeSeries.prototype.nearest = function (px) {
+        var r = this.range();
+        var n = r[1] - r[0];
+        if (n <= 0) {
+            return -1;
+        }
+        var plotW = Math.max(1, this.canvas.width - LEFT - RIGHT);
+        var i = Math.round((px - LEFT) / plotW * Math.max(1, n - 1));
+        return r[0] + Math.max(0, Math.min(n - 1, i));
+    };
+
+    TimeSeries.prototype.describe = function (index) {
+        var info = [];
+        if (index < 0) {
+            return info;
+        }
+        var at = this.start + index;
+        for (var j = 0; j < this.columns.length; j++) {
+            info.push(this.labels[at], this.columns[j].raw[at], j, index);
+        }
+        return info;
+    };
+
+    TimeSeries.prototype.position = function (event) {
+        var rect = this.canvas.getBoundingClientRect();
+        return event['clientX'] - rect['left'];
+    };
+
+    function modifiers(event) {
+        return [event['shiftKey'], event['ctrlKey'], event['altKey'], event['metaKey']];
+    }
+
+    TimeSeries.prototype.listen = function () {
+        var self = this;
+        var canvas = this.canvas;
+        var drag = null;
+        var pendingMove = null;
+        this.handlers = {
+            'mousedown': function (event) {
+                drag = { 'x': self.position(event), 'range': self.range(), 'moved': false };
+                event.preventDefault();
+            },
+            'mousemove': function (event) {
+                if (drag) {
+                    var dx = self.position(event) - drag['x'];
+                    if (Math.abs(dx) > 3) {
+                        drag['moved'] = true;
+                    }
+                    if (drag['moved']) {
+                        var r = drag['range'];
+                        var n = r[1] - r[0];
+                        var plotW = Math.max(1, canvas.width - LEFT - RIGHT);
+                        self.zoomTo(r[0] - dx / plotW * n, n);
+                    }
+                    return;
+                }
+                if (!self.hover) {
+                    return;
+                }
+                var scheduled = pendingMove !== null;
+                pendingMove = event;
+                if (!scheduled) {
+                    var raf = global['requestAnimationFrame'];
+                    var deliver = function () {
+                        var e = pendingMove;
+                        pendingMove = null;
+                        var index = e['type'] === 'mouseout' ? -1 : self.nearest(self.position(e));
+                        if (index !== self.hovered) {
+                            self.hovered = index;
+                            self.callbacks['hover'](modifiers(e), self.describe(index));
+                        }
+                    };
+                    if (raf) {
+                        raf.call(global, deliver);
+                    } else {
+                        setTimeout(deliver, 16);
+                    }
+                }
+            },
+            'mouseup': function (event) {
+                var d = drag;
+                drag = null;
+                if (d && !d['moved']) {
+                    var index = self.nearest(self.position(event));
+                    self.callbacks['click'](modifiers(event), self.describe(index));
+                }
+            },
+            'mouseout': function (event) {
+                drag = null;
+                self.handlers['mousemove'](event);
+            },
+            'wheel': function (event) {
+                var r = self.range();
+                var n = r[1] - r[0];
+                var plotW = Math.max(1, canvas.width - LEFT - RIGHT);
+                var ratio = Math.max(0, Math.min(1, (self.position(event) - LEFT) / plotW));
+                var factor = event['deltaY'] > 0 ? 1.25 : 0.8;
+                var m = n * factor;
+                self.zoomTo(r[0] + ratio * n - ratio * m, m);
+                event.preventDefault();
+            },
+            'dblclick': function (event) {
+                self.view = null;
+                self.requestDraw();
+                event.preventDefault();
+            }
+        };
+        for (var type in this.handlers) {
+            canvas.addEventListener(type, this.handlers[type], false);
+        }
+    };
+
+    TimeSeries.prototype['track'] = function (hover, hitTest) {
+        this.hover = hover;
+        if (!hover) {
+            this.hovered = -1;
+        }
+    };
+
+    TimeSeries.prototype['destroy'] = function () {
+        this.destroyed = true;
+        for (var type in this.handlers) {
+            this.canvas.removeEventListener(type, this.handlers[type], false);
+        }
+        this.ctx.clearRect(0, 0, this.canvas.width, this.canvas.height);
+    };
+
+    global['DukeScriptTimeSeries'] = TimeSeries;
+})(typeof window !== 'undefined' ? window : this);
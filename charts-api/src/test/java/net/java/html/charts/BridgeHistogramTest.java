@@ -0,0 +1,70 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import net.java.html.charts.ChartProbe.Operation;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+public class BridgeHistogramTest {
+    @Test
+    public void countsPerOperation() {
+        BridgeHistogram h = new BridgeHistogram();
+        h.bridgeCall(null, Operation.ADD_DATA, 1, 100);
+        h.bridgeCall(null, Operation.ADD_DATA, 1, 300);
+        h.bridgeCall(null, Operation.APPLY_OPS, 50, 1000);
+
+        assertEquals(h.getCount(Operation.ADD_DATA), 2);
+        assertEquals(h.getElements(Operation.ADD_DATA), 2);
+        assertEquals(h.getNanos(Operation.ADD_DATA), 400);
+        assertEquals(h.getCount(Operation.APPLY_OPS), 1);
+        assertEquals(h.getElements(Operation.APPLY_OPS), 50);
+        assertEquals(h.getCount(Operation.DESTROY), 0);
+        assertTrue(h.toString().contains("APPLY_OPS count=1 elements=50"), h.toString());
+
+        h.reset();
+        assertEquals(h.getCount(Operation.ADD_DATA), 0);
+        assertEquals(h.toString(), "");
+    }
+
+    @Test
+    public void percentilesAreUpperBounds() {
+        BridgeHistogram h = new BridgeHistogram();
+        for (int i = 0; i < 99; i++) {
+            h.bridgeCall(null, Operation.UPDATE_DATA, 1, 1000);
+        }
+        h.bridgeCall(null, Operation.UPDATE_DATA, 1, 1000000);
+
+        final long p50 = h.getPercentile(Operation.UPDATE_DATA, 50);
+        assertTrue(p50 >= 1000 && p50 < 2000, "Median: " + p50);
+        assertEquals(h.getPercentile(Operation.UPDATE_DATA, 99), p50);
+        final long max = h.getPercentile(Operation.UPDATE_DATA, 100);
+        assertTrue(max >= 1000000 && max < 2000000, "Max: " + max);
+        assertEquals(h.getPercentile(Operation.REMOVE_DATA, 50), 0);
+    }
+}
@@ -34,12 +34,15 @@ import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 import javafx.application.Platform;
 import net.java.html.boot.BrowserBuilder;
 import net.java.html.js.JavaScriptBody;
 import org.netbeans.html.boot.spi.Fn;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.fail;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -201,6 +204,558 @@ public class ChartsTest implements Runnable {
         waitForAnimation();
     }
 
+    @Test
+    public void barChartBatch() throws Exception {
+        final List<Chart<Values, Config>> bars = new ArrayList<>();
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                Chart<Values, Config> barChart = Chart.createBar(new Values.Set(
+                    "My First dataset",
+                    Color.rgba(220,220,220,0.2),
+                    Color.rgba(220,220,220,1.0)
+                ), new Values.Set(
+                    "My Second dataset",
+                    Color.rgba(151,187,205,0.2),
+                    Color.rgba(151,187,205,1)
+                ));
+                barChart.getConfig().callback("onAnimationComplete", ChartsTest.this);
+                bars.add(barChart);
+
+                barChart.getData().addAll(Arrays.asList(
+                    new Values("January", 65, 28),
+                    new Values("February", 59, 48),
+                    new Values("March", 80, 40),
+                    new Values("April", 81, 19),
+                    new Values("May", 56, 86),
+                    new Values("June", 55, 27),
+                    new Values("July", 40, 90)
+                ));
+
+                barChart.applyTo("barChart");
+
+                chart = barChart;
+                return null;
+            }
+        });
+        waitForAnimation();
+        animationComplete = false;
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                final List<Values> data = bars.get(0).getData();
+                bars.get(0).batch(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int i = 0; i < data.size(); i++) {
+                            data.set(i, new Values("Value" + i, i, 10 * i));
+                        }
+                        data.remove(0);
+                        data.add(new Values("August", 33, 66));
+                    }
+                });
+                return null;
+            }
+        });
+        waitForAnimation();
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                assertInt(evalChart(chart, "chart.datasets.length"), 2, "Two datasets");
+                assertInt(evalChart(chart, "chart.datasets[0].bars.length"), 7, "Seven values set 0");
+                assertInt(evalChart(chart, "chart.datasets[1].bars.length"), 7, "Seven values set 1");
+                assertEquals(evalChart(chart, "chart.datasets[0].bars[0].label"), "Value1", "1st label");
+                assertInt(evalChart(chart, "chart.datasets[0].bars[0].value"), 1, "1st value in 1st set");
+                assertInt(evalChart(chart, "chart.datasets[1].bars[5].value"), 60, "6th value in 2nd set");
+                assertEquals(evalChart(chart, "chart.datasets[1].bars[6].label"), "August", "Last label");
+                assertInt(evalChart(chart, "chart.datasets[1].bars[6].value"), 66, "Last value in 2nd set");
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void lineChartBulkChanges() throws Exception {
+        final List<Chart<Values, Config>> lines = new ArrayList<>();
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                Chart<Values, Config> lineChart = Chart.createLine(new Values.Set(
+                    "My First dataset",
+                    Color.rgba(220,220,220,0.2),
+                    Color.rgba(220,220,220,1.0)
+                ));
+                lineChart.getConfig().callback("onAnimationComplete", ChartsTest.this);
+                lines.add(lineChart);
+
+                lineChart.getData().addAll(Arrays.asList(
+                    new Values("January", 65),
+                    new Values("February", 59),
+                    new Values("March", 80),
+                    new Values("April", 81)
+                ));
+
+                lineChart.applyTo("lineChart");
+
+                chart = lineChart;
+                return null;
+            }
+        });
+        waitForAnimation();
+        animationComplete = false;
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                List<Values> data = lines.get(0).getData();
+                data.removeAll(Arrays.asList(data.get(1), data.get(2)));
+                data.addAll(1, Arrays.asList(
+                    new Values("May", 56),
+                    new Values("June", 55),
+                    new Values("July", 40)
+                ));
+                return null;
+            }
+        });
+        waitForAnimation();
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                assertInt(evalChart(chart, "chart.datasets[0].points.length"), 5, "Five values");
+                assertEquals(evalChart(chart, "chart.datasets[0].points[0].label"), "January");
+                assertEquals(evalChart(chart, "chart.datasets[0].points[1].label"), "May");
+                assertEquals(evalChart(chart, "chart.datasets[0].points[3].label"), "July");
+                assertInt(evalChart(chart, "chart.datasets[0].points[4].value"), 81, "April is last");
+                assertEquals(evalChart(chart, "chart.scale.xLabels[4]"), "April");
+
+                lines.get(0).getData().clear();
+                return null;
+            }
+        });
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                assertInt(evalChart(chart, "chart.datasets[0].points.length"), 0, "No values");
+                assertInt(evalChart(chart, "chart.scale.xLabels.length"), 0, "No labels");
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void lineChartCoalescedUpdates() throws Exception {
+        final List<Chart<Values, Config>> lines = new ArrayList<>();
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                Chart<Values, Config> lineChart = Chart.createLine(new Values.Set(
+                    "My First dataset",
+                    Color.rgba(220,220,220,0.2),
+                    Color.rgba(220,220,220,1.0)
+                )).coalesceUpdates(30);
+                lineChart.getConfig().callback("onAnimationComplete", ChartsTest.this);
+                lines.add(lineChart);
+
+                lineChart.getData().add(new Values("Initial", 0));
+
+                lineChart.applyTo("lineChart");
+
+                chart = lineChart;
+                return null;
+            }
+        });
+        waitForAnimation();
+        animationComplete = false;
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                evalChart(chart, "var u = chart.update; chart.updates = 0; chart.update = function() { chart.updates++; return u.apply(this, arguments); }");
+                List<Values> data = lines.get(0).getData();
+                for (int i = 1; i <= 100; i++) {
+                    data.add(new Values("Value " + i, i));
+                }
+                data.set(0, new Values("First", 10));
+                assertInt(evalChart(chart, "chart.datasets[0].points.length"), 1, "Nothing sent yet");
+                return null;
+            }
+        });
+        waitForAnimation();
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                assertInt(evalChart(chart, "chart.updates"), 1, "Single repaint");
+                assertInt(evalChart(chart, "chart.datasets[0].points.length"), 101, "All values sent");
+                assertEquals(evalChart(chart, "chart.datasets[0].points[0].label"), "First");
+                assertInt(evalChart(chart, "chart.datasets[0].points[100].value"), 100, "Last value");
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void lineChartSubscriber() throws Exception {
+        final List<ChartSubscriber<Values>> subscribers = new ArrayList<>();
+        final List<Chart<Values, Config>> lines = new ArrayList<>();
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                Chart<Values, Config> lineChart = Chart.createLine(new Values.Set(
+                    "My First dataset",
+                    Color.rgba(220,220,220,0.2),
+                    Color.rgba(220,220,220,1.0)
+                )).slidingWindow(100);
+                lines.add(lineChart);
+                lineChart.applyTo("lineChart");
+                subscribers.add(ChartSubscriber.create(lineChart, 16));
+
+                chart = lineChart;
+                return null;
+            }
+        });
+        final ChartSubscriber<Values> sink = subscribers.get(0);
+        final AtomicLong demand = new AtomicLong();
+        sink.onSubscribe(new ChartSubscriber.Subscription() {
+            @Override
+            public void request(long n) {
+                demand.addAndGet(n);
+            }
+
+            @Override
+            public void cancel() {
+                fail("Shall not be cancelled");
+            }
+        });
+        Executors.newSingleThreadExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                int i = 0;
+                while (i < 1000) {
+                    if (demand.get() > 0) {
+                        demand.decrementAndGet();
+                        sink.onNext(new Values("Value " + i, i));
+                        i++;
+                    } else {
+                        Thread.yield();
+                    }
+                }
+                sink.onComplete();
+            }
+        });
+        while (!sink.isDone()) {
+            Thread.sleep(10);
+        }
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                assertInt(lines.get(0).getData().size(), 100, "Window is full");
+                assertEquals(lines.get(0).getData().get(99).getLabel(), "Value 999");
+                assertInt(evalChart(chart, "chart.datasets[0].points.length"), 100, "Hundred points");
+                assertEquals(evalChart(chart, "chart.datasets[0].points[99].label"), "Value 999");
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void lineChartIndexOfLabel() throws Exception {
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                Chart<Values, Config> lineChart = Chart.createLine(new Values.Set(
+                    "My First dataset",
+                    Color.rgba(220,220,220,0.2),
+                    Color.rgba(220,220,220,1.0)
+                )).slidingWindow(5);
+                for (int i = 0; i < 5; i++) {
+                    lineChart.append(new Values("Value " + i, i));
+                }
+                assertInt(lineChart.indexOf("Value 3"), 3, "Found");
+                assertInt(lineChart.indexOf("Unknown"), -1, "Not found");
+
+                lineChart.append(new Values("Value 5", 5));
+                lineChart.append(new Values("Value 6", 6));
+                assertInt(lineChart.indexOf("Value 1"), -1, "Evicted");
+                assertInt(lineChart.indexOf("Value 3"), 1, "Shifted");
+                assertInt(lineChart.indexOf("Value 6"), 4, "Appended");
+
+                lineChart.getData().set(0, new Values("Renamed", 2));
+                assertInt(lineChart.indexOf("Value 2"), -1, "Renamed");
+                assertInt(lineChart.indexOf("Renamed"), 0, "New label");
+
+                lineChart.getData().add(1, new Values("Inserted", 1));
+                assertInt(lineChart.indexOf("Inserted"), 1, "Inserted");
+                assertInt(lineChart.indexOf("Value 6"), 5, "Moved");
+
+                final ChartEvent[] events = { null };
+                lineChart.addChartListener(new ChartListener() {
+                    @Override
+                    public void chartClick(ChartEvent ev) {
+                        events[0] = ev;
+                    }
+                });
+                lineChart.onClick(new Object[] { false, false, false, false }, new Object[] { "Value 5", 5.0, 0, 4 });
+                assertNotNull(events[0], "Event delivered");
+                assertEquals(events[0].getLabel(), "Value 5");
+                assertInt(events[0].getIndex(), 4, "Index from the chart");
+                assertEquals(events[0].getValues()[0], 5.0);
+                assertInt(events[0].getDataSets()[0], 0, "First data set");
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void hoverIsDeliveredToHoverListenersOnly() throws Exception {
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                Chart<Segment, Config> pieChart = Chart.createPie();
+                pieChart.getData().add(new Segment("Red", 10, Color.valueOf("red"), Color.valueOf("red")));
+                final List<String> events = new ArrayList<>();
+                pieChart.addChartListener(new ChartListener() {
+                    @Override
+                    public void chartClick(ChartEvent ev) {
+                        events.add("click " + ev.getLabel());
+                    }
+                });
+                pieChart.addChartListener(new ChartHoverListener() {
+                    @Override
+                    public void chartClick(ChartEvent ev) {
+                        events.add("hover click " + ev.getLabel());
+                    }
+
+                    @Override
+                    public void chartHover(ChartEvent ev) {
+                        events.add("hover " + ev.getLabel() + " " + ev.getIndex());
+                    }
+                });
+                final Object[] noKeys = { false, false, false, false };
+                pieChart.onHover(noKeys, new Object[] { "Red", 10, 0, 0 });
+                pieChart.onHover(noKeys, new Object[0]);
+                pieChart.onClick(noKeys, new Object[] { "Red", 10, 0, 0 });
+                assertEquals(events.toString(), "[hover Red 0, hover null -1, click Red, hover click Red]");
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void lineChartSpatialHitTest() throws Exception {
+        final List<Chart<Values, Config>> lines = new ArrayList<>();
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                Chart<Values, Config> lineChart = Chart.createLine(new Values.Set(
+                    "My First dataset",
+                    Color.rgba(220,220,220,0.2),
+                    Color.rgba(220,220,220,1.0)
+                ), new Values.Set(
+                    "My Second dataset",
+                    Color.rgba(151,187,205,0.2),
+                    Color.rgba(151,187,205,1)
+                )).spatialHitTest();
+                lineChart.getConfig().callback("onAnimationComplete", ChartsTest.this);
+                lines.add(lineChart);
+
+                for (int i = 0; i < 500; i++) {
+                    lineChart.getData().add(new Values("Value " + i, i, 500 - i));
+                }
+
+                lineChart.applyTo("lineChart");
+
+                chart = lineChart;
+                return null;
+            }
+        });
+        waitForAnimation();
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                final ChartEvent[] events = { null };
+                lines.get(0).addChartListener(new ChartListener() {
+                    @Override
+                    public void chartClick(ChartEvent ev) {
+                        events[0] = ev;
+                    }
+                });
+                double x = ((Number) evalChart(chart, "chart.datasets[1].points[123].x")).doubleValue();
+                double y = ((Number) evalChart(chart, "chart.datasets[1].points[123].y")).doubleValue();
+                int width = ((Number) evalChart(chart, "chart.chart.width")).intValue();
+                int height = ((Number) evalChart(chart, "chart.chart.height")).intValue();
+                lines.get(0).onHit(new Object[] { false, false, false, false }, x, y, width, height);
+                assertNotNull(events[0], "Event delivered");
+                assertInt(events[0].getIndex(), 123, "Hit the point");
+                assertInt(events[0].getDataSets()[0], 1, "In the second data set");
+                assertEquals(events[0].getLabel(), "Value 123");
+                assertEquals(events[0].getValues()[0], 377.0);
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void sharedConfigTemplate() throws Exception {
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                ConfigTemplate template = ConfigTemplate.create().with("animation", false);
+                Chart<Values, Config> first = Chart.createLine(template);
+                Chart<Segment, Config> second = Chart.createPie(template);
+                assertSame(first.getConfig().js(), second.getConfig().js(), "Shared object");
+                assertEquals(evalJs(first.getConfig().js(), "chart.animation"), false);
+                assertEquals(evalJs(first.getConfig().js(), "chart.responsive"), true);
+
+                second.getConfig().set("animation", true);
+                assertNotSame(first.getConfig().js(), second.getConfig().js(), "Copied on write");
+                assertEquals(evalJs(first.getConfig().js(), "chart.animation"), false, "Template unchanged");
+                assertEquals(evalJs(second.getConfig().js(), "chart.animation"), true);
+                assertEquals(evalJs(second.getConfig().js(), "chart.responsive"), true);
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void lineChartSlidingWindow() throws Exception {
+        final List<Chart<Values, Config>> lines = new ArrayList<>();
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                Chart<Values, Config> lineChart = Chart.createLine(new Values.Set(
+                    "My First dataset",
+                    Color.rgba(220,220,220,0.2),
+                    Color.rgba(220,220,220,1.0)
+                )).slidingWindow(3);
+                lineChart.getConfig().callback("onAnimationComplete", ChartsTest.this);
+                lines.add(lineChart);
+
+                lineChart.append(new Values("January", 65));
+                lineChart.append(new Values("February", 59));
+
+                lineChart.applyTo("lineChart");
+
+                chart = lineChart;
+                return null;
+            }
+        });
+        waitForAnimation();
+        animationComplete = false;
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                lines.get(0).append(new Values("March", 80));
+                lines.get(0).append(new Values("April", 81));
+                lines.get(0).append(new Values("May", 56));
+                return null;
+            }
+        });
+        waitForAnimation();
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                assertInt(lines.get(0).getData().size(), 3, "Three values in the window");
+                assertInt(evalChart(chart, "chart.datasets[0].points.length"), 3, "Three values rendered");
+                assertEquals(evalChart(chart, "chart.datasets[0].points[0].label"), "March");
+                assertInt(evalChart(chart, "chart.datasets[0].points[2].value"), 56, "May is last");
+                assertEquals(evalChart(chart, "chart.scale.xLabels[0]"), "March");
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void lineChartDownsampled() throws Exception {
+        final List<Chart<Values, Config>> lines = new ArrayList<>();
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                Chart<Values, Config> lineChart = Chart.createLine(new Values.Set(
+                    "My First dataset",
+                    Color.rgba(220,220,220,0.2),
+                    Color.rgba(220,220,220,1.0)
+                )).downsample(10);
+                lineChart.getConfig().callback("onAnimationComplete", ChartsTest.this);
+                lines.add(lineChart);
+
+                for (int i = 0; i < 1000; i++) {
+                    lineChart.getData().add(new Values("Value " + i, i == 500 ? 1000 : i % 10));
+                }
+
+                lineChart.applyTo("lineChart");
+
+                chart = lineChart;
+                return null;
+            }
+        });
+        waitForAnimation();
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                assertEquals(evalChart(chart, "chart.datasets[0].points.length <= 10"), true, "At most ten points rendered");
+                assertInt(evalChart(chart, "Math.max.apply(null, chart.datasets[0].points.map(function(p) { return p.value; }))"), 1000, "Peak is kept");
+
+                lines.get(0).zoom(498, 503);
+                return null;
+            }
+        });
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                assertInt(evalChart(chart, "chart.datasets[0].points.length"), 5, "Five points rendered");
+                assertEquals(evalChart(chart, "chart.datasets[0].points[0].label"), "Value 498");
+                assertInt(evalChart(chart, "chart.datasets[0].points[2].value"), 1000, "Peak in the middle");
+                assertInt(lines.get(0).getData().size(), 1000, "All data kept");
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void lineChartFitScale() throws Exception {
+        final List<Chart<Values, Config>> lines = new ArrayList<>();
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                Chart<Values, Config> lineChart = Chart.createLine(new Values.Set(
+                    "My First dataset",
+                    Color.rgba(220,220,220,0.2),
+                    Color.rgba(220,220,220,1.0)
+                ));
+                lineChart.getConfig().callback("onAnimationComplete", ChartsTest.this);
+                lines.add(lineChart);
+
+                for (int i = 0; i < 100; i++) {
+                    lineChart.getData().add(new Values("Value " + i, i));
+                }
+                Statistics stats = lineChart.getStatistics(10, 20);
+                assertEquals(stats.getMin(), 10.0);
+                assertEquals(stats.getMax(), 19.0);
+                assertEquals(stats.getSum(), 145.0);
+
+                lineChart.applyTo("lineChart");
+
+                chart = lineChart;
+                return null;
+            }
+        });
+        waitForAnimation();
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                lines.get(0).fitScale(20, 30, 9);
+                return null;
+            }
+        });
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                assertInt(evalChart(chart, "chart.scale.min"), 20, "Scale starts at minimum");
+                assertInt(evalChart(chart, "chart.scale.max"), 29, "Scale ends at maximum");
+                assertInt(evalChart(chart, "chart.scale.steps"), 9, "Nine steps");
+                return null;
+            }
+        });
+    }
+
     @Test
     public void radarChart() throws Exception {
         final List<Chart<Values, Config>> radars = new ArrayList<>();
@@ -396,6 +951,28 @@ public class ChartsTest implements Runnable {
         });
     }
 
+    @Test
+    public void transferOfMillionDoubles() throws Exception {
+        final double[] arr = new double[1000000];
+        double sum = 0;
+        for (int i = 0; i < arr.length; i++) {
+            arr[i] = Math.sin(i / 1000.0) * 100.0;
+            sum += arr[i];
+        }
+        final double expected = sum;
+        run(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                Object data = Doubles.transfer(arr, arr.length);
+                assertEquals(decodedSum(data, arr.length), expected, 1e-6, "All values transfered");
+                if (data instanceof String) {
+                    assertEquals(decodedType(data, arr.length), "[object Float64Array]", "Typed array handed over");
+                }
+                return null;
+            }
+        });
+    }
+
     @AfterMethod
     public void cleanUpTheGraph() throws Exception {
         if (chart != null) {
@@ -469,6 +1046,21 @@ public class ChartsTest implements Runnable {
         return evalJs(chart.chartJs(), code);
     }
 
+    @JavaScriptBody(args = { "data", "count" }, body = Doubles.DECODE +
+        "var arr = decode(data, count);\n" +
+        "var sum = 0;\n" +
+        "for (var i = 0; i < arr.length; i++) {\n" +
+        "  sum += arr[i];\n" +
+        "}\n" +
+        "return sum;\n"
+    )
+    private static native double decodedSum(Object data, int count);
+
+    @JavaScriptBody(args = { "data", "count" }, body = Doubles.DECODE +
+        "return Object.prototype.toString.call(decode(data, count));"
+    )
+    private static native String decodedType(Object data, int count);
+
     @JavaScriptBody(args = { "chart", "code" }, body = "\n"
             + "return eval(code);\n"
     )
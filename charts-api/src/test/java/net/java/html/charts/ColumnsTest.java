@@ -0,0 +1,74 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import org.testng.annotations.Test;
+
+public class ColumnsTest {
+    @Test
+    public void storesValuesInColumns() {
+        Columns c = new Columns(2, 4);
+        c.set(0, new Values("a", 1, 2));
+        c.set(1, new Values("b", 3, 4));
+        assertEquals(c.labels[1], "b");
+        assertEquals(c.values[0][1], 3.0);
+        assertEquals(c.values[1][1], 4.0);
+        assertEquals(c.get(0), new Values("a", 1, 2));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void rejectsWrongNumberOfValues() {
+        Columns c = new Columns(2, 4);
+        c.set(0, new Values("a", 1));
+    }
+
+    @Test
+    public void relayoutUnwrapsTheRing() {
+        Columns c = new Columns(1, 4);
+        c.set(2, new Values("first", 1));
+        c.set(3, new Values("second", 2));
+        c.set(0, new Values("third", 3));
+        c.relayout(2, 3, 6);
+        assertEquals(c.capacity(), 6);
+        assertEquals(c.get(0), new Values("first", 1));
+        assertEquals(c.get(1), new Values("second", 2));
+        assertEquals(c.get(2), new Values("third", 3));
+        assertNull(c.labels[3]);
+    }
+
+    @Test
+    public void eraseClearsLabel() {
+        Columns c = new Columns(1, 2);
+        c.set(0, new Values("a", 1));
+        c.copy(0, 1);
+        c.erase(0);
+        assertNull(c.labels[0]);
+        assertEquals(c.get(1), new Values("a", 1));
+    }
+}
@@ -0,0 +1,97 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import org.netbeans.html.boot.spi.Fn;
+import org.testng.annotations.Test;
+
+public class ConfigTest {
+    @Test
+    public void chartsAreBuiltWithoutPresenter() throws Exception {
+        assertNull(Fn.activePresenter(), "No presenter");
+        ExecutorService workers = Executors.newFixedThreadPool(4);
+        List<Future<Chart<Values, Config>>> charts = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            charts.add(workers.submit(new Callable<Chart<Values, Config>>() {
+                @Override
+                public Chart<Values, Config> call() throws Exception {
+                    Chart<Values, Config> chart = Chart.createLine(new Values.Set(
+                        "Data", Color.valueOf("red"), Color.valueOf("blue")
+                    )).slidingWindow(100);
+                    chart.getConfig().set("animation", false).callback("onAnimationComplete", new Runnable() {
+                        @Override
+                        public void run() {
+                        }
+                    });
+                    for (int j = 0; j < 1000; j++) {
+                        chart.append(new Values("Value " + j, j));
+                    }
+                    chart.fitScale(0, 100, 10);
+                    return chart;
+                }
+            }));
+        }
+        for (Future<Chart<Values, Config>> f : charts) {
+            Chart<Values, Config> chart = f.get();
+            assertEquals(chart.getData().size(), 100);
+            assertEquals(chart.getData().get(0).getLabel(), "Value 900");
+        }
+        workers.shutdown();
+    }
+
+    @Test
+    public void valuesReadInJava() {
+        ConfigTemplate template = ConfigTemplate.create().with("animation", false).with("pointDot", false);
+        Chart<Values, Config> chart = Chart.createLine(template, new Values.Set(
+            "Data", Color.valueOf("red"), Color.valueOf("blue")
+        ));
+        chart.getConfig().set("pointDot", true);
+        assertEquals(chart.getConfig().get("animation"), false, "From template");
+        assertEquals(chart.getConfig().get("pointDot"), true, "Overriden");
+        assertEquals(chart.getConfig().get("responsive"), true, "Default");
+        assertNull(chart.getConfig().get("bezierCurve"));
+        assertEquals(chart.getType(), "Line");
+        assertEquals(chart.getDataSets()[0].getLabel(), "Data");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void fitScaleNeedsPositiveSteps() {
+        Chart<Values, Config> chart = Chart.createLine(new Values.Set(
+            "Data", Color.valueOf("red"), Color.valueOf("blue")
+        ));
+        chart.getData().add(new Values("A", 1));
+        chart.fitScale(0, 1, 0);
+    }
+}
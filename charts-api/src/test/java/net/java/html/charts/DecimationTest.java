@@ -0,0 +1,110 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.Test;
+
+public class DecimationTest {
+    private static Columns columns(double... values) {
+        Columns c = new Columns(1, values.length);
+        for (int i = 0; i < values.length; i++) {
+            c.set(i, new Values("v" + i, values[i]));
+        }
+        return c;
+    }
+
+    private static void assertView(Decimation d, int... expected) {
+        int[] real = new int[d.count];
+        System.arraycopy(d.view, 0, real, 0, d.count);
+        assertEquals(real, expected);
+    }
+
+    @Test
+    public void smallDataAreNotReduced() {
+        Decimation d = new Decimation(10);
+        assertEquals(d.refresh(columns(1, 2, 3), 0, 3), 0);
+        assertView(d, 0, 1, 2);
+    }
+
+    @Test
+    public void keepsMinAndMaxOfEachBucket() {
+        Decimation d = new Decimation(4);
+        d.refresh(columns(5, 1, 9, 3, 4, 8, 2, 7), 0, 8);
+        assertView(d, 1, 2, 5, 6);
+    }
+
+    @Test
+    public void keepsPeaksOfEveryDataSet() {
+        double[] first = { 5, 1, 9, 3, 4, 8, 2, 7 };
+        double[] second = { 0, 0, 0, 100, 0, 0, 0, 0 };
+        Columns c = new Columns(2, first.length);
+        for (int i = 0; i < first.length; i++) {
+            c.set(i, new Values("v" + i, first[i], second[i]));
+        }
+        Decimation d = new Decimation(8);
+        d.refresh(c, 0, first.length);
+        assertView(d, 0, 1, 2, 3, 4, 5, 6);
+    }
+
+    @Test
+    public void appendRecomputesOnlyLastBucket() {
+        Columns c = columns(5, 1, 9, 3, 4, 8, 0, 0);
+        Decimation d = new Decimation(4);
+        d.refresh(c, 0, 6);
+        assertView(d, 1, 2, 4, 5);
+        d.changed(6);
+        assertEquals(d.refresh(c, 0, 7), 2, "First bucket stays");
+        assertView(d, 1, 2, 5, 6);
+    }
+
+    @Test
+    public void zoomShowsDetails() {
+        Decimation d = new Decimation(4);
+        Columns c = columns(5, 1, 9, 3, 4, 8, 2, 7);
+        d.refresh(c, 0, 8);
+        d.range(2, 4);
+        assertEquals(d.refresh(c, 0, 8), 0);
+        assertView(d, 2, 3);
+    }
+
+    @Test
+    public void respectsHeadOfTheRing() {
+        Decimation d = new Decimation(10);
+        d.refresh(columns(1, 2, 3, 4), 2, 3);
+        assertView(d, 0, 1, 2);
+        Columns selected = d.select(columns(1, 2, 3, 4), 2);
+        assertEquals(selected.labels, new String[] { "v2", "v3", "v0" });
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void downsampleNeedsPositiveMaxPoints() {
+        Chart.createLine(new Values.Set(
+            "Data", Color.valueOf("red"), Color.valueOf("blue")
+        )).downsample(0);
+    }
+}
@@ -0,0 +1,52 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.Test;
+
+public class DoublesTest {
+    @Test
+    public void encodeSingleValue() {
+        assertEquals(Doubles.encode(new double[] { 1.0 }, 1), "AAAAAAAA8D8=");
+    }
+
+    @Test
+    public void encodeThreeValues() {
+        assertEquals(Doubles.encode(new double[] { 1.0, -2.5, 1e300 }, 3), "AAAAAAAA8D8AAAAAAAAEwJx1AIg85Dd+");
+    }
+
+    @Test
+    public void encodeOnlyCountValues() {
+        assertEquals(Doubles.encode(new double[] { 0.1, 42, 7, 8 }, 2), "mpmZmZmZuT8AAAAAAABFQA==");
+    }
+
+    @Test
+    public void encodeNothing() {
+        assertEquals(Doubles.encode(new double[] { 0.1 }, 0), "");
+    }
+}
@@ -0,0 +1,113 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+public class FeedQueueTest {
+    @Test
+    public void keepsOrder() {
+        FeedQueue<Integer> q = new FeedQueue<>(10, false);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(q.offer(i));
+        }
+        List<Integer> out = new ArrayList<>();
+        assertEquals(q.drainTo(out), 5);
+        assertEquals(out.toString(), "[0, 1, 2, 3, 4]");
+        assertEquals(q.size(), 0);
+        assertEquals(q.drainTo(out), 0);
+    }
+
+    @Test
+    public void rejectsWhenFull() {
+        FeedQueue<Integer> q = new FeedQueue<>(2, false);
+        assertTrue(q.offer(1));
+        assertTrue(q.offer(2));
+        assertFalse(q.offer(3), "Full");
+        assertEquals(q.dropped(), 1);
+        List<Integer> out = new ArrayList<>();
+        q.drainTo(out);
+        assertEquals(out.toString(), "[1, 2]");
+        assertTrue(q.offer(4), "Room again");
+    }
+
+    @Test
+    public void dropsOldest() {
+        FeedQueue<Integer> q = new FeedQueue<>(3, true);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(q.offer(i));
+        }
+        assertEquals(q.dropped(), 7);
+        List<Integer> out = new ArrayList<>();
+        q.drainTo(out);
+        assertEquals(out.toString(), "[7, 8, 9]");
+    }
+
+    @Test
+    public void manyProducersOneConsumer() throws Exception {
+        final int producers = 8;
+        final int count = 20000;
+        final FeedQueue<int[]> q = new FeedQueue<>(100, true);
+        final CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            final int id = p;
+            new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < count; i++) {
+                        q.offer(new int[] { id, i });
+                    }
+                    done.countDown();
+                }
+            }.start();
+        }
+        int[] last = new int[producers];
+        java.util.Arrays.fill(last, -1);
+        long received = 0;
+        List<int[]> out = new ArrayList<>();
+        for (;;) {
+            boolean finished = done.getCount() == 0;
+            out.clear();
+            q.drainTo(out);
+            for (int[] e : out) {
+                assertTrue(e[1] > last[e[0]], "Order of each producer is kept");
+                last[e[0]] = e[1];
+            }
+            received += out.size();
+            if (finished && out.isEmpty()) {
+                break;
+            }
+        }
+        assertEquals(received + q.dropped(), (long) producers * count, "Nothing lost silently");
+    }
+}
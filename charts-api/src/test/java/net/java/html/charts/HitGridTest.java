@@ -0,0 +1,76 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Random;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.Test;
+
+public class HitGridTest {
+    @Test
+    public void findsNearestWithinRadius() {
+        double[] xy = { 10, 10, 30, 10, 50, 50, 12, 14 };
+        HitGrid grid = new HitGrid(xy, 2, 5, 100, 100);
+        assertEquals(grid.nearest(11, 11), 0);
+        assertEquals(grid.nearest(12, 13), 3, "Second data set");
+        assertEquals(grid.nearest(31, 9), 1);
+        assertEquals(grid.nearest(20, 20), -1, "Too far");
+    }
+
+    @Test
+    public void pointsOutsideOfTheChart() {
+        double[] xy = { -3, 2, 101, 99 };
+        HitGrid grid = new HitGrid(xy, 2, 5, 100, 100);
+        assertEquals(grid.nearest(0, 0), 0);
+        assertEquals(grid.nearest(99, 99), 1);
+    }
+
+    @Test
+    public void matchesLinearScan() {
+        Random r = new Random(11);
+        double[] xy = new double[2 * 5000];
+        for (int i = 0; i < xy.length; i++) {
+            xy[i] = r.nextDouble() * 800;
+        }
+        HitGrid grid = new HitGrid(xy, 5000, 7, 800, 800);
+        for (int round = 0; round < 1000; round++) {
+            double x = r.nextDouble() * 800;
+            double y = r.nextDouble() * 800;
+            int best = -1;
+            double bestDistance = 49;
+            for (int i = 0; i < 5000; i++) {
+                double dx = xy[2 * i] - x;
+                double dy = xy[2 * i + 1] - y;
+                if (dx * dx + dy * dy < bestDistance) {
+                    bestDistance = dx * dx + dy * dy;
+                    best = i;
+                }
+            }
+            assertEquals(grid.nearest(x, y), best);
+        }
+    }
+}
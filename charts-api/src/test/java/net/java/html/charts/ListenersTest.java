@@ -32,7 +32,7 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 public class ListenersTest {
-    private ChartListener current;
+    private ChartListener[] current;
     private L l1;
     private L l2;
     private L l3;
@@ -42,7 +42,7 @@ public class ListenersTest {
 
     @BeforeMethod
     public void addFewItems() {
-        current = null;
+        current = Listeners.EMPTY;
         l1 = new L("l1");
         assertEquals(Listeners.all(current).size(), 0, "Nothing");
         current = Listeners.add(current, l1);
@@ -0,0 +1,115 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Random;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+public class RangeIndexTest {
+    private static Columns columns(int capacity, double[]... values) {
+        Columns c = new Columns(values.length, capacity);
+        for (int i = 0; i < values[0].length; i++) {
+            double[] row = new double[values.length];
+            for (int j = 0; j < values.length; j++) {
+                row[j] = values[j][i];
+            }
+            c.set(i, new Values("v" + i, row));
+        }
+        return c;
+    }
+
+    private static Statistics query(RangeIndex index, int from, int to) {
+        Statistics stats = new Statistics();
+        index.query(from, to, stats);
+        return stats;
+    }
+
+    @Test
+    public void aggregatesAllDataSets() {
+        Columns c = columns(5, new double[] { 5, 1, 9 }, new double[] { 2, 7, 3 });
+        RangeIndex index = new RangeIndex(c, 0, 3);
+        Statistics all = query(index, 0, 3);
+        assertEquals(all.getMin(), 1.0);
+        assertEquals(all.getMax(), 9.0);
+        assertEquals(all.getSum(), 27.0);
+        assertEquals(all.getCount(), 6);
+
+        Statistics middle = query(index, 1, 2);
+        assertEquals(middle.getMin(), 1.0);
+        assertEquals(middle.getMax(), 7.0);
+        assertEquals(middle.getCount(), 2);
+    }
+
+    @Test
+    public void emptyRange() {
+        RangeIndex index = new RangeIndex(columns(4, new double[] { 1, 2 }), 0, 2);
+        Statistics none = query(index, 1, 1);
+        assertEquals(none.getCount(), 0);
+        assertTrue(Double.isNaN(none.getMin()));
+        assertTrue(Double.isNaN(none.getMax()));
+    }
+
+    @Test
+    public void updatesAndClears() {
+        Columns c = columns(8, new double[] { 5, 1, 9, 3 });
+        RangeIndex index = new RangeIndex(c, 0, 4);
+        c.set(2, new Values("x", 0.5));
+        index.update(2, c.values);
+        assertEquals(query(index, 0, 4).getMax(), 5.0);
+        assertEquals(query(index, 0, 4).getMin(), 0.5);
+        c.erase(0);
+        index.clear(0);
+        assertEquals(query(index, 0, 4).getMax(), 3.0);
+        assertEquals(query(index, 0, 4).getCount(), 3);
+    }
+
+    @Test
+    public void matchesLinearScan() {
+        Random r = new Random(7);
+        double[] arr = new double[100];
+        for (int i = 0; i < arr.length; i++) {
+            arr[i] = r.nextGaussian();
+        }
+        RangeIndex index = new RangeIndex(columns(arr.length, arr), 0, arr.length);
+        for (int round = 0; round < 1000; round++) {
+            int from = r.nextInt(arr.length);
+            int to = from + 1 + r.nextInt(arr.length - from);
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = from; i < to; i++) {
+                min = Math.min(min, arr[i]);
+                max = Math.max(max, arr[i]);
+            }
+            Statistics stats = query(index, from, to);
+            assertEquals(stats.getMin(), min);
+            assertEquals(stats.getMax(), max);
+            assertEquals(stats.getCount(), to - from);
+        }
+    }
+}
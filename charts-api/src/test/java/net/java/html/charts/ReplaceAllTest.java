@@ -0,0 +1,131 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.Test;
+
+public class ReplaceAllTest {
+    private static Chart<Values, Config> line(int size) {
+        Chart<Values, Config> chart = Chart.createLine(
+            new Values.Set("One", Color.valueOf("red"), Color.valueOf("red")),
+            new Values.Set("Two", Color.valueOf("blue"), Color.valueOf("blue"))
+        );
+        for (int i = 0; i < size; i++) {
+            chart.getData().add(new Values("L" + i, i, -i));
+        }
+        return chart;
+    }
+
+    @Test
+    public void changedValues() {
+        Chart<Values, Config> chart = line(200);
+        List<Values> snapshot = new ArrayList<>(chart.getData());
+        snapshot.set(3, new Values("L3", 33, -3));
+        snapshot.set(150, new Values("L150", 150, 0));
+        chart.replaceAll(snapshot);
+        assertEquals(chart.getData(), snapshot);
+    }
+
+    @Test
+    public void shiftedWindow() {
+        Chart<Values, Config> chart = line(100);
+        List<Values> snapshot = new ArrayList<>(chart.getData().subList(7, 100));
+        for (int i = 100; i < 107; i++) {
+            snapshot.add(new Values("L" + i, i, -i));
+        }
+        chart.replaceAll(snapshot);
+        assertEquals(chart.getData(), snapshot);
+        assertEquals(chart.indexOf("L7"), 0);
+    }
+
+    @Test
+    public void replacedNullLabel() {
+        Chart<Values, Config> chart = line(5);
+        chart.getData().set(2, new Values(null, 2, -2));
+        assertEquals(chart.indexOf(null), 2);
+        List<Values> snapshot = new ArrayList<>(chart.getData());
+        snapshot.set(2, new Values("Named", 2, -2));
+        chart.replaceAll(snapshot);
+        assertEquals(chart.indexOf(null), -1, "No stale slot");
+        assertEquals(chart.indexOf("Named"), 2);
+        chart.getData().set(4, new Values(null, 4, -4));
+        chart.getData().remove(4);
+        assertEquals(chart.indexOf(null), -1, "Removed");
+    }
+
+    @Test
+    public void prependedElements() {
+        Chart<Values, Config> chart = line(10);
+        List<Values> snapshot = new ArrayList<>();
+        snapshot.add(new Values("First", 1, 1));
+        snapshot.add(new Values("Second", 2, 2));
+        snapshot.addAll(chart.getData());
+        chart.replaceAll(snapshot);
+        assertEquals(chart.getData(), snapshot);
+    }
+
+    @Test
+    public void segments() {
+        Chart<Segment, Config> pie = Chart.createPie();
+        final Color red = Color.valueOf("red");
+        for (int i = 0; i < 10; i++) {
+            pie.getData().add(new Segment("S" + i, i, red, red));
+        }
+        List<Segment> snapshot = new ArrayList<>(pie.getData());
+        final Segment recolored = new Segment("S4", 4, Color.valueOf("blue"), red);
+        snapshot.set(4, recolored);
+        snapshot.remove(9);
+        pie.replaceAll(snapshot);
+        assertEquals(pie.getData().size(), 9);
+        assertEquals(pie.getData().get(4), recolored);
+        assertEquals(pie.getData().get(3), snapshot.get(3));
+    }
+
+    @Test
+    public void randomSnapshots() {
+        Random r = new Random(5);
+        Chart<Values, Config> chart = line(50);
+        for (int round = 0; round < 500; round++) {
+            List<Values> snapshot = new ArrayList<>(chart.getData());
+            final int drop = Math.min(snapshot.size(), r.nextInt(5));
+            snapshot.subList(0, drop).clear();
+            for (int i = r.nextInt(4); i > 0 && !snapshot.isEmpty(); i--) {
+                int at = r.nextInt(snapshot.size());
+                snapshot.set(at, new Values(snapshot.get(at).getLabel(), r.nextInt(10), r.nextInt(10)));
+            }
+            for (int i = r.nextInt(6); i > 0; i--) {
+                snapshot.add(r.nextInt(snapshot.size() + 1), new Values("R" + round + "-" + i, i, i));
+            }
+            chart.replaceAll(snapshot);
+            assertEquals(chart.getData(), snapshot, "Round " + round);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.Test;
+
+public class SlidingWindowTest {
+    private static Chart<Values, Config> window(int capacity, int count) {
+        Chart<Values, Config> chart = Chart.createLine(new Values.Set(
+            "Data", Color.valueOf("red"), Color.valueOf("blue")
+        )).slidingWindow(capacity);
+        for (int i = 0; i < count; i++) {
+            chart.append(new Values("V" + i, i));
+        }
+        return chart;
+    }
+
+    private static List<String> labels(Chart<Values, ?> chart) {
+        List<String> arr = new ArrayList<>();
+        for (Values v : chart.getData()) {
+            arr.add(v.getLabel());
+        }
+        return arr;
+    }
+
+    @Test
+    public void addToFullWindowEvictsOldest() {
+        Chart<Values, Config> chart = window(3, 3);
+        chart.getData().add(new Values("V3", 3));
+        assertEquals(labels(chart), Arrays.asList("V1", "V2", "V3"));
+        chart.getData().add(2, new Values("In", 0));
+        assertEquals(labels(chart), Arrays.asList("V2", "In", "V3"));
+        chart.getData().add(0, new Values("Old", 0));
+        assertEquals(labels(chart), Arrays.asList("V2", "In", "V3"), "Would be evicted at once");
+    }
+
+    @Test
+    public void addAllKeepsNewest() {
+        Chart<Values, Config> chart = window(3, 2);
+        chart.getData().addAll(Arrays.asList(new Values("A", 0), new Values("B", 0), new Values("C", 0)));
+        assertEquals(labels(chart), Arrays.asList("A", "B", "C"));
+        chart.getData().addAll(1, Arrays.asList(new Values("X", 0), new Values("Y", 0)));
+        assertEquals(labels(chart), Arrays.asList("Y", "B", "C"));
+    }
+
+    @Test
+    public void replaceAllKeepsEndOfSnapshot() {
+        Chart<Values, Config> chart = window(3, 3);
+        List<Values> snapshot = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            snapshot.add(new Values("S" + i, i));
+        }
+        chart.replaceAll(snapshot);
+        assertEquals(labels(chart), Arrays.asList("S7", "S8", "S9"));
+    }
+}
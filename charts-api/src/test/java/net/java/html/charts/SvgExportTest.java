@@ -0,0 +1,164 @@
+package net.java.html.charts;
+
+/*
+ * #%L
+ * charts-api - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import javax.xml.parsers.DocumentBuilderFactory;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+public class SvgExportTest {
+    private static Chart<Values, Config> line(int count) {
+        Chart<Values, Config> chart = Chart.createLine(
+            new Values.Set("A", Color.valueOf("rgba(220,220,220,0.2)"), Color.valueOf("#f00")),
+            new Values.Set("B", Color.valueOf("rgba(151,187,205,0.2)"), Color.valueOf("#00f"))
+        );
+        for (int i = 0; i < count; i++) {
+            chart.getData().add(new Values("V" + i, i % 10, -(i % 7)));
+        }
+        return chart;
+    }
+
+    private static Document parse(String svg) throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new InputSource(new StringReader(svg)));
+    }
+
+    private static Element strokeOf(Document doc, String color) {
+        NodeList paths = doc.getElementsByTagName("path");
+        for (int i = 0; i < paths.getLength(); i++) {
+            Element e = (Element) paths.item(i);
+            if (color.equals(e.getAttribute("stroke")) && "none".equals(e.getAttribute("fill"))) {
+                return e;
+            }
+        }
+        throw new AssertionError("No stroke of " + color);
+    }
+
+    @Test
+    public void lineChartIsWellFormed() throws Exception {
+        Chart<Values, Config> chart = line(12);
+        chart.getData().set(4, new Values("<b>&\"", 5, 5));
+        StringWriter w = new StringWriter();
+        chart.writeSvg(w, 400, 200);
+        Document doc = parse(w.toString());
+        assertEquals(doc.getDocumentElement().getAttribute("width"), "400");
+        String d = strokeOf(doc, "#f00").getAttribute("d");
+        assertEquals(d.split("L").length, 12, "All points: " + d);
+        assertEquals(doc.getElementsByTagName("circle").getLength(), 24, "Dots for both sets");
+        assertTrue(w.toString().contains("&lt;b&gt;&amp;&quot;"), "Label escaped");
+        assertTrue(w.toString().contains("fill=\"rgb(220,220,220)\" fill-opacity=\"0.2\""), "Transparency split");
+    }
+
+    @Test
+    public void millionOfValuesIsDecimated() throws Exception {
+        Chart<Values, Config> chart = line(1000000);
+        chart.getData().set(500000, new Values("Spike", 100, 0));
+        CountingWriter big = new CountingWriter();
+        chart.writeSvg(big, 400, 200);
+        CountingWriter small = new CountingWriter();
+        line(1000).writeSvg(small, 400, 200);
+        assertTrue(big.count < 3 * small.count, "Output bounded: " + big.count + " vs. " + small.count);
+
+        StringWriter w = new StringWriter();
+        chart.writeSvg(w, 400, 200);
+        String d = strokeOf(parse(w.toString()), "#f00").getAttribute("d");
+        double top = Double.MAX_VALUE;
+        for (String point : d.substring(1).split("L")) {
+            top = Math.min(top, Double.parseDouble(point.split(",")[1]));
+        }
+        assertTrue(top < 20, "Spike reaches the top: " + top);
+    }
+
+    @Test
+    public void segmentsAreArcs() throws Exception {
+        Chart<Segment, Config> doughnut = Chart.createDoughnut();
+        doughnut.getData().add(new Segment("One", 1, Color.valueOf("red"), Color.valueOf("red")));
+        doughnut.getData().add(new Segment("Two", 3, Color.valueOf("blue"), Color.valueOf("blue")));
+        StringWriter w = new StringWriter();
+        doughnut.writeSvg(w, 100, 100);
+        NodeList paths = parse(w.toString()).getElementsByTagName("path");
+        assertEquals(paths.getLength(), 2);
+        assertEquals(((Element) paths.item(0)).getAttribute("fill"), "red");
+        assertEquals(((Element) paths.item(0)).getAttribute("d"), "M50,5A45,45 0 0,1 95,50L72.5,50A22.5,22.5 0 0,0 50,27.5Z");
+    }
+
+    @Test
+    public void streamIsUtf8() throws Exception {
+        Chart<Segment, Config> pie = Chart.createPie();
+        pie.getData().add(new Segment("Grüße", 1, Color.valueOf("red"), Color.valueOf("red")));
+        Chart<Values, Config> bar = Chart.createBar(new Values.Set("A", Color.valueOf("red"), Color.valueOf("red")));
+        bar.getData().add(new Values("Grüße", 1));
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        bar.writeSvg(os, 100, 100);
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(os.toByteArray()));
+        assertEquals(doc.getElementsByTagName("rect").getLength(), 1);
+        assertTrue(new String(os.toByteArray(), "UTF-8").contains("Grüße"));
+        pie.writeSvg(new ByteArrayOutputStream(), 10, 10);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void sizeMustBePositive() throws IOException {
+        line(1).writeSvg(new StringWriter(), 10, -1);
+    }
+
+    private static final class CountingWriter extends Writer {
+        long count;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void write(int c) {
+            count++;
+        }
+
+        @Override
+        public void write(String str) {
+            count += str.length();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.dukescript.charts.benchmarks;
+
+/*
+ * #%L
+ * Charts Benchmarks - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import com.dukescript.charts.headless.RecordingPresenter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.java.html.charts.Chart;
+import net.java.html.charts.Color;
+import net.java.html.charts.Config;
+import net.java.html.charts.Values;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures the Java side of a {@link Chart} with a {@link RecordingPresenter}
+ * that only counts the calls:
+ * transposition of the data in {@link Chart#applyTo(java.lang.String)}
+ * and the add, set and remove paths of the {@link Chart#getData() data}
+ * list once the chart is displayed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChartBenchmark {
+    private static final Values.Set[] SETS = {
+        new Values.Set("First", Color.valueOf("red"), Color.valueOf("black")),
+        new Values.Set("Second", Color.valueOf("blue"), Color.valueOf("black")),
+    };
+
+    @Param({ "10", "1000", "100000", "1000000" })
+    int size;
+
+    private Closeable presenter;
+    private Chart<Values, Config> shown;
+    private List<Values> data;
+    private Values[] values;
+    private int at;
+
+    @Setup
+    public void setup() {
+        presenter = new RecordingPresenter(false).activate();
+        values = new Values[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = new Values("Value " + i, i, size - i);
+        }
+        shown = fill();
+        shown.applyTo("shown");
+        data = shown.getData();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        shown.destroy();
+        presenter.close();
+    }
+
+    final Chart<Values, Config> fill() {
+        Chart<Values, Config> chart = Chart.createLine(SETS);
+        final List<Values> list = chart.getData();
+        for (Values v : values) {
+            list.add(v);
+        }
+        return chart;
+    }
+
+    private Values next() {
+        if (++at >= size) {
+            at = 0;
+        }
+        return values[at];
+    }
+
+    /** Chart filled with data, but not yet displayed. A chart can be
+     * displayed only once, so a new one is prepared for each iteration
+     * of {@link #applyTo(com.dukescript.charts.benchmarks.ChartBenchmark.Fresh)},
+     * which measures a single call per iteration.
+     */
+    @State(Scope.Thread)
+    public static class Fresh {
+        Chart<Values, Config> chart;
+
+        @Setup(Level.Iteration)
+        public void prepare(ChartBenchmark benchmark) {
+            chart = benchmark.fill();
+        }
+
+        @TearDown(Level.Iteration)
+        public void destroy() {
+            chart.destroy();
+            chart = null;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 10)
+    @Measurement(iterations = 20)
+    public Object applyTo(Fresh fresh) {
+        fresh.chart.applyTo("fresh");
+        return fresh.chart;
+    }
+
+    @Benchmark
+    public int appendAndRemoveFirst() {
+        data.add(next());
+        data.remove(0);
+        return data.size();
+    }
+
+    @Benchmark
+    public int setMiddle() {
+        data.set(size / 2, next());
+        return data.size();
+    }
+
+    @Benchmark
+    public int insertAndRemoveMiddle() {
+        data.add(size / 2, next());
+        data.remove(size / 2);
+        return data.size();
+    }
+
+    @Benchmark
+    public int batchSetHundred() {
+        shown.batch(new Runnable() {
+            @Override
+            public void run() {
+                final int n = Math.min(100, size);
+                for (int i = 0; i < n; i++) {
+                    data.set(i, next());
+                }
+            }
+        });
+        return data.size();
+    }
+}
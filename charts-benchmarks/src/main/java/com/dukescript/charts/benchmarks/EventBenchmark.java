@@ -0,0 +1,93 @@
+package com.dukescript.charts.benchmarks;
+
+/*
+ * #%L
+ * Charts Benchmarks - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+import net.java.html.charts.Chart;
+import net.java.html.charts.ChartEvent;
+import net.java.html.charts.ChartListener;
+import net.java.html.charts.Config;
+import net.java.html.charts.Values;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Measures decoding of the information received from the browser into
+ * a {@link ChartEvent} delivered to a listener and reading its
+ * {@link ChartEvent#getValues() values} by several listeners.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventBenchmark implements ChartListener {
+    @Param({ "1", "10", "100" })
+    int sets;
+
+    private Chart<Values, Config> chart;
+    private Object[] info;
+    private ChartEvent event;
+
+    @Setup
+    public void setup() {
+        chart = Chart.createLine();
+        chart.addChartListener(this);
+        info = new Object[sets * 4];
+        for (int i = 0; i < sets; i++) {
+            info[i * 4] = "Label";
+            info[i * 4 + 1] = (double) i;
+            info[i * 4 + 2] = i;
+            info[i * 4 + 3] = 7;
+        }
+        EventSource.click(chart, info);
+    }
+
+    @Override
+    public void chartClick(ChartEvent ev) {
+        event = ev;
+    }
+
+    @Benchmark
+    public ChartEvent decode() {
+        EventSource.click(chart, info);
+        return event;
+    }
+
+    @Benchmark
+    public double getValuesByThreeListeners() {
+        double sum = 0;
+        for (int l = 0; l < 3; l++) {
+            final double[] values = event.getValues();
+            sum += values[values.length - 1];
+        }
+        return sum;
+    }
+}
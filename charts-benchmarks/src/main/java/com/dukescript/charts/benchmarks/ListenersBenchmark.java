@@ -0,0 +1,205 @@
+package com.dukescript.charts.benchmarks;
+
+/*
+ * #%L
+ * Charts Benchmarks - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.java.html.charts.Chart;
+import net.java.html.charts.ChartEvent;
+import net.java.html.charts.ChartListener;
+import net.java.html.charts.Config;
+import net.java.html.charts.Values;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Compares delivery of an event to the listeners of a {@link Chart}
+ * with the previous implementation, which kept listeners in a linked
+ * chain and copied them into a fresh list for each event. Both charts
+ * get the same click, the second one has a single listener dispatching
+ * the event along the chain. Run with <code>-prof gc</code> to see
+ * the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ListenersBenchmark {
+    @Param({ "1", "3", "10" })
+    int count;
+
+    private Chart<Values, Config> array;
+    private Chart<Values, Config> chained;
+    private ChainDispatch chain;
+    private final Object[] info = new Object[0];
+
+    @Setup
+    public void setup() {
+        array = Chart.createLine();
+        chained = Chart.createLine();
+        chain = new ChainDispatch();
+        chained.addChartListener(chain);
+        for (int i = 0; i < count; i++) {
+            Counter c = new Counter();
+            array.addChartListener(c);
+            chain.chain = Chain.add(chain.chain, c);
+        }
+    }
+
+    @Benchmark
+    public Chart<?, ?> dispatchArray() {
+        EventSource.click(array, info);
+        return array;
+    }
+
+    @Benchmark
+    public Chart<?, ?> dispatchChain() {
+        EventSource.click(chained, info);
+        return chained;
+    }
+
+    @Benchmark
+    public Chart<?, ?> addRemoveArray() {
+        Counter c = new Counter();
+        array.addChartListener(c);
+        array.removeChartListener(c);
+        return array;
+    }
+
+    @Benchmark
+    public ChartListener addRemoveChain() {
+        Counter c = new Counter();
+        return Chain.remove(Chain.add(chain.chain, c), c);
+    }
+
+    static final class ChainDispatch implements ChartListener {
+        ChartListener chain;
+
+        @Override
+        public void chartClick(ChartEvent ev) {
+            for (ChartListener l : Chain.all(chain)) {
+                l.chartClick(ev);
+            }
+        }
+    }
+
+    static final class Counter implements ChartListener {
+        int clicks;
+
+        @Override
+        public void chartClick(ChartEvent ev) {
+            clicks++;
+        }
+    }
+
+    /** The linked chain of listeners used before the chart
+     * switched to arrays.
+     */
+    static final class Chain implements ChartListener {
+        final ChartListener listener;
+        final Chain next;
+
+        Chain(ChartListener listener, Chain next) {
+            this.listener = listener;
+            this.next = next;
+        }
+
+        @Override
+        public void chartClick(ChartEvent ev) {
+            assert false;
+        }
+
+        static ChartListener add(ChartListener current, ChartListener l) {
+            if (l == null) {
+                return current;
+            }
+            if (current == null) {
+                return l;
+            } else if (current instanceof Chain) {
+                Chain p = (Chain) current;
+                while (p != null) {
+                    if (p.listener == l) {
+                        return current;
+                    }
+                    p = p.next;
+                }
+                return new Chain(l, (Chain) current);
+            } else {
+                if (current == l) {
+                    return current;
+                }
+                return new Chain(l, new Chain(current, null));
+            }
+        }
+
+        static ChartListener remove(ChartListener current, ChartListener l) {
+            if (current == null || current == l) {
+                return null;
+            }
+            if (current instanceof Chain) {
+                Chain head = (Chain) current;
+                if (head.listener == l) {
+                    return head.next;
+                } else {
+                    final ChartListener tail = remove(head.next, l);
+                    if (tail == null) {
+                        return head.listener;
+                    } if (tail instanceof Chain) {
+                        return new Chain(head.listener, (Chain) tail);
+                    } else {
+                        return new Chain(head.listener, new Chain(tail, null));
+                    }
+                }
+            } else {
+                return current;
+            }
+        }
+
+        static List<ChartListener> all(ChartListener current) {
+            if (current == null) {
+                return Collections.emptyList();
+            }
+            if (current instanceof Chain) {
+                LinkedList<ChartListener> all = new LinkedList<>();
+                Chain l = (Chain) current;
+                while (l != null) {
+                    all.addFirst(l.listener);
+                    l = l.next;
+                }
+                return all;
+            } else {
+                return Collections.nCopies(1, current);
+            }
+        }
+    }
+}
@@ -0,0 +1,524 @@
+package com.dukescript.charts.benchmarks;
+
+/*
+ * #%L
+ * Charts Benchmarks - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import com.sun.glass.ui.Window;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javafx.application.Platform;
+import net.java.html.boot.BrowserBuilder;
+import net.java.html.charts.Chart;
+import net.java.html.charts.Color;
+import net.java.html.charts.Config;
+import net.java.html.charts.Segment;
+import net.java.html.charts.Values;
+import net.java.html.js.JavaScriptBody;
+import org.netbeans.html.boot.spi.Fn;
+
+/** End to end benchmark of charts rendered in a software rendered
+ * WebView. Loads <code>render.html</code> the same way
+ * <code>ChartsTest</code> does and drives standard workloads:
+ * <ul>
+ *   <li>initial render of a line chart with given number of points</li>
+ *   <li>streaming appends into a sliding window at a fixed rate</li>
+ *   <li>replacement of the whole data set in a batch</li>
+ *   <li>churn of segments of a pie chart</li>
+ *   <li>transfer of a million doubles to JavaScript, packed into
+ *     a base64 string and decoded by the browser</li>
+ * </ul>
+ * Each sample is the time from the Java call to the end of the next
+ * painted frame, except for the transfer, which paints nothing. For streaming the number of frames and frames dropped
+ * by the browser are reported too. Results are written as JSON:
+ * <pre>
+ * java -cp target/benchmarks.jar com.dukescript.charts.benchmarks.RenderBenchmark results.json
+ * </pre>
+ */
+public final class RenderBenchmark {
+    private static final long PAINT_TIMEOUT = 1000;
+    private Fn.Presenter presenter;
+    private Chart<?, ?> chart;
+
+    private RenderBenchmark() {
+    }
+
+    public static void main(String... args) throws Exception {
+        System.setProperty("prism.order", "sw");
+        final File file = new File(args.length > 0 ? args[0] : "render-benchmark.json");
+        final int repeat = Integer.getInteger("repeat", 10);
+        RenderBenchmark b = new RenderBenchmark();
+        b.open();
+        List<Result> results = new ArrayList<>();
+        for (int points : new int[] { 100, 1000, 10000 }) {
+            b.initialRender(points, 2);
+            results.add(b.initialRender(points, repeat));
+        }
+        results.add(b.streaming(500, 30, 5));
+        results.add(b.streaming(500, 60, 5));
+        for (int points : new int[] { 100, 1000, 10000 }) {
+            results.add(b.replace(points, repeat));
+        }
+        results.add(b.pieChurn(50, 10, repeat));
+        b.transfer(1000000, 2);
+        results.add(b.transfer(1000000, repeat));
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(file), "UTF-8")) {
+            write(results, w);
+        }
+        for (Result r : results) {
+            System.out.println(r);
+        }
+        System.out.println("Results written to " + file);
+        System.exit(0);
+    }
+
+    private void open() throws InterruptedException {
+        final CountDownLatch initialized = new CountDownLatch(1);
+        final BrowserBuilder builder = BrowserBuilder.newBrowser().
+            loadPage("render.html").
+            loadFinished(new Runnable() {
+                @Override
+                public void run() {
+                    presenter = Fn.activePresenter();
+                    initialized.countDown();
+                }
+            });
+        Executors.newSingleThreadExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                builder.showAndWait();
+            }
+        });
+        initialized.await();
+    }
+
+    private static Chart<Values, Config> line(int points) {
+        Chart<Values, Config> line = Chart.createLine(new Values.Set(
+            "Sine",
+            Color.rgba(220, 220, 220, 0.2),
+            Color.rgba(220, 220, 220, 1.0)
+        ), new Values.Set(
+            "Cosine",
+            Color.rgba(151, 187, 205, 0.2),
+            Color.rgba(151, 187, 205, 1.0)
+        ));
+        line.getConfig().set("animation", false);
+        for (int i = 0; i < points; i++) {
+            line.getData().add(values(i, 0));
+        }
+        return line;
+    }
+
+    private static Values values(int i, double phase) {
+        final double x = i / 10.0 + phase;
+        return new Values("#" + i, Math.sin(x) * 100, Math.cos(x) * 100);
+    }
+
+    private Result initialRender(final int points, int repeat) throws Exception {
+        Result r = new Result("initialRender");
+        r.param("points", points);
+        for (int i = 0; i < repeat; i++) {
+            final Chart<Values, Config> line = line(points);
+            r.sample(measure(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    line.applyTo("chart");
+                    chart = line;
+                    return null;
+                }
+            }));
+            destroy();
+        }
+        return r;
+    }
+
+    private Result replace(final int points, int repeat) throws Exception {
+        Result r = new Result("replace");
+        r.param("points", points);
+        show(line(points));
+        @SuppressWarnings("unchecked")
+        final Chart<Values, ?> line = (Chart<Values, ?>) chart;
+        for (int i = 0; i < repeat; i++) {
+            final double phase = i + 1;
+            r.sample(measure(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    line.batch(new Runnable() {
+                        @Override
+                        public void run() {
+                            for (int j = 0; j < points; j++) {
+                                line.getData().set(j, values(j, phase));
+                            }
+                        }
+                    });
+                    return null;
+                }
+            }));
+        }
+        destroy();
+        return r;
+    }
+
+    private Result pieChurn(final int segments, final int churn, int repeat) throws Exception {
+        Result r = new Result("pieChurn");
+        r.param("segments", segments);
+        r.param("churn", churn);
+        final Chart<Segment, Config> pie = Chart.createPie();
+        pie.getConfig().set("animation", false);
+        for (int i = 0; i < segments; i++) {
+            pie.getData().add(segment(i));
+        }
+        show(pie);
+        for (int i = 0; i < repeat; i++) {
+            final int round = i;
+            r.sample(measure(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    pie.batch(new Runnable() {
+                        @Override
+                        public void run() {
+                            for (int j = 0; j < churn; j++) {
+                                pie.getData().remove(0);
+                                pie.getData().add(segment(segments + round * churn + j));
+                            }
+                        }
+                    });
+                    return null;
+                }
+            }));
+        }
+        destroy();
+        return r;
+    }
+
+    private Result transfer(int count, int repeat) throws Exception {
+        final Result r = new Result("transfer");
+        r.param("values", count);
+        final double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = Math.sin(i / 1000.0) * 100.0;
+        }
+        for (int i = 0; i < repeat; i++) {
+            onFx(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    final long start = System.nanoTime();
+                    Transfer.decode(values);
+                    r.sample(System.nanoTime() - start);
+                    return null;
+                }
+            });
+        }
+        return r;
+    }
+
+    private static Segment segment(int i) {
+        Color c = Color.rgba((i * 37) % 256, (i * 91) % 256, (i * 53) % 256, 1.0);
+        return new Segment("Slice " + i, 10 + (i * 7) % 30, c, c);
+    }
+
+    private Result streaming(final int window, final int hz, int seconds) throws Exception {
+        final Result r = new Result("streaming");
+        r.param("window", window);
+        r.param("hz", hz);
+        r.param("seconds", seconds);
+        show(line(window).slidingWindow(window));
+        @SuppressWarnings("unchecked")
+        final Chart<Values, ?> line = (Chart<Values, ?>) chart;
+        onFx(new Callable<Void>() {
+            @Override
+            public Void call() {
+                startFrames();
+                return null;
+            }
+        });
+        final int total = hz * seconds;
+        final CountDownLatch done = new CountDownLatch(total);
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        timer.scheduleAtFixedRate(new Runnable() {
+            private int sent;
+
+            @Override
+            public void run() {
+                if (sent >= total) {
+                    return;
+                }
+                final int at = window + sent++;
+                Platform.runLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        try (Closeable c = Fn.activate(presenter)) {
+                            final long start = System.nanoTime();
+                            line.append(values(at, 0));
+                            afterPaint(new Runnable() {
+                                @Override
+                                public void run() {
+                                    r.sample(System.nanoTime() - start);
+                                    done.countDown();
+                                }
+                            });
+                        } catch (IOException ex) {
+                            throw new IllegalStateException(ex);
+                        }
+                    }
+                });
+            }
+        }, 0, 1000000000L / hz, TimeUnit.NANOSECONDS);
+        while (!done.await(PAINT_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            nudge();
+        }
+        timer.shutdown();
+        onFx(new Callable<Void>() {
+            @Override
+            public Void call() {
+                Object[] frames = stopFrames();
+                r.frames = ((Number) frames[0]).intValue();
+                r.dropped = ((Number) frames[1]).intValue();
+                return null;
+            }
+        });
+        destroy();
+        return r;
+    }
+
+    private void show(final Chart<?, ?> c) throws Exception {
+        measure(new Callable<Void>() {
+            @Override
+            public Void call() {
+                c.applyTo("chart");
+                chart = c;
+                return null;
+            }
+        });
+    }
+
+    private void destroy() throws Exception {
+        onFx(new Callable<Void>() {
+            @Override
+            public Void call() {
+                chart.destroy();
+                chart = null;
+                return null;
+            }
+        });
+    }
+
+    /** Runs the action and waits for the next painted frame.
+     * @return nanoseconds from start of the action to the end of the frame
+     */
+    private long measure(final Callable<?> action) throws Exception {
+        final CountDownLatch painted = new CountDownLatch(1);
+        final long[] took = { 0 };
+        onFx(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                final long start = System.nanoTime();
+                action.call();
+                afterPaint(new Runnable() {
+                    @Override
+                    public void run() {
+                        took[0] = System.nanoTime() - start;
+                        painted.countDown();
+                    }
+                });
+                return null;
+            }
+        });
+        while (!painted.await(PAINT_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            nudge();
+        }
+        return took[0];
+    }
+
+    /** The WebView may stop producing frames when nothing changes
+     * on the screen. Resizing the window, as <code>ChartsTest</code>
+     * does, wakes it up.
+     */
+    private void nudge() throws Exception {
+        onFx(new Callable<Void>() {
+            @Override
+            public Void call() {
+                for (Window w : Window.getWindows()) {
+                    w.setSize(w.getWidth(), w.getHeight() - 1);
+                }
+                return null;
+            }
+        });
+    }
+
+    private void onFx(final Callable<?> r) throws Exception {
+        final CountDownLatch await = new CountDownLatch(1);
+        final Throwable[] arr = { null };
+        Platform.runLater(new Runnable() {
+            @Override
+            public void run() {
+                try (Closeable c = Fn.activate(presenter)) {
+                    r.call();
+                } catch (Throwable t) {
+                    arr[0] = t;
+                } finally {
+                    await.countDown();
+                }
+            }
+        });
+        await.await();
+        if (arr[0] instanceof Exception) {
+            throw (Exception) arr[0];
+        }
+        if (arr[0] instanceof Error) {
+            throw (Error) arr[0];
+        }
+    }
+
+    @JavaScriptBody(args = { "r" }, javacall = true, body =
+        "var raf = function(f) { window['requestAnimationFrame'](f); };\n" +
+        "raf(function() {\n" +
+        "  raf(function() {\n" +
+        "    r.@java.lang.Runnable::run()();\n" +
+        "  });\n" +
+        "});\n"
+    )
+    private static native void afterPaint(Runnable r);
+
+    @JavaScriptBody(args = {}, body =
+        "var m = window['chartFrames'] = { 'frames' : 0, 'dropped' : 0, 'last' : 0, 'on' : true };\n" +
+        "var tick = function(time) {\n" +
+        "  if (!m['on']) return;\n" +
+        "  if (m['last']) {\n" +
+        "    m['frames']++;\n" +
+        "    var lost = Math.round((time - m['last']) / (1000 / 60)) - 1;\n" +
+        "    if (lost > 0) m['dropped'] += lost;\n" +
+        "  }\n" +
+        "  m['last'] = time;\n" +
+        "  window['requestAnimationFrame'](tick);\n" +
+        "};\n" +
+        "window['requestAnimationFrame'](tick);\n"
+    )
+    private static native void startFrames();
+
+    @JavaScriptBody(args = {}, body =
+        "var m = window['chartFrames'];\n" +
+        "m['on'] = false;\n" +
+        "return [ m['frames'], m['dropped'] ];\n"
+    )
+    private static native Object[] stopFrames();
+
+    static void write(List<Result> results, Writer w) throws IOException {
+        w.write("{\n  \"benchmark\" : \"render\",\n");
+        w.write("  \"java\" : \"" + System.getProperty("java.version") + "\",\n");
+        w.write("  \"results\" : [");
+        String sep = "\n";
+        for (Result r : results) {
+            w.write(sep);
+            r.write(w);
+            sep = ",\n";
+        }
+        w.write("\n  ]\n}\n");
+    }
+
+    /** Samples of one workload.
+     */
+    static final class Result {
+        final String name;
+        final Map<String, Integer> params = new LinkedHashMap<>();
+        private long[] samples = new long[16];
+        private int count;
+        int frames = -1;
+        int dropped = -1;
+
+        Result(String name) {
+            this.name = name;
+        }
+
+        void param(String key, int value) {
+            params.put(key, value);
+        }
+
+        synchronized void sample(long nanos) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = nanos;
+        }
+
+        /** Percentile of the samples in milliseconds.
+         */
+        synchronized double millis(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int at = (int) Math.ceil(percentile / 100.0 * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, at))] / 1e6;
+        }
+
+        synchronized double mean() {
+            long sum = 0;
+            for (int i = 0; i < count; i++) {
+                sum += samples[i];
+            }
+            return count == 0 ? 0 : sum / 1e6 / count;
+        }
+
+        synchronized void write(Writer w) throws IOException {
+            w.write("    { \"workload\" : \"" + name + "\", \"params\" : {");
+            String sep = " ";
+            for (Map.Entry<String, Integer> e : params.entrySet()) {
+                w.write(sep + "\"" + e.getKey() + "\" : " + e.getValue());
+                sep = ", ";
+            }
+            w.write(" },\n      \"samples\" : " + count);
+            w.write(", \"meanMs\" : " + mean());
+            w.write(", \"p50Ms\" : " + millis(50));
+            w.write(", \"p95Ms\" : " + millis(95));
+            w.write(", \"maxMs\" : " + millis(100));
+            if (frames >= 0) {
+                w.write(", \"frames\" : " + frames + ", \"droppedFrames\" : " + dropped);
+            }
+            w.write(" }");
+        }
+
+        @Override
+        public String toString() {
+            return name + params + ": mean " + mean() + " ms, p95 " + millis(95) + " ms" +
+                (frames >= 0 ? ", " + frames + " frames, " + dropped + " dropped" : "");
+        }
+    }
+}
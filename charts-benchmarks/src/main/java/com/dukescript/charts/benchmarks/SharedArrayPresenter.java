@@ -0,0 +1,70 @@
+package com.dukescript.charts.benchmarks;
+
+/*
+ * #%L
+ * Charts Benchmarks - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.io.Reader;
+import java.net.URL;
+import org.netbeans.html.boot.spi.Fn;
+
+/** Presenter sharing Java arrays with JavaScript, as presenters
+ * compiling Java to JavaScript (like Bck2Brwsr or TeaVM) do - an array
+ * passed to JavaScript twice is the very same object. The only JavaScript
+ * it understands is the comparison <code>a === b</code>, every other
+ * function returns its first argument. That is all the fast path of
+ * the transfer needs.
+ */
+final class SharedArrayPresenter implements Fn.Presenter {
+    Closeable activate() {
+        return Fn.activate(this);
+    }
+
+    @Override
+    public Fn defineFn(String code, String... names) {
+        final boolean compare = code.contains("a === b");
+        return new Fn(this) {
+            @Override
+            public Object invoke(Object thiz, Object... args) throws Exception {
+                if (compare) {
+                    return args[0] == args[1];
+                }
+                return args.length == 0 ? null : args[0];
+            }
+        };
+    }
+
+    @Override
+    public void displayPage(URL page, Runnable onPageLoad) {
+        if (onPageLoad != null) {
+            onPageLoad.run();
+        }
+    }
+
+    @Override
+    public void loadScript(Reader code) throws Exception {
+    }
+}
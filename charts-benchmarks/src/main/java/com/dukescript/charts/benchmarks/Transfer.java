@@ -0,0 +1,74 @@
+package com.dukescript.charts.benchmarks;
+
+/*
+ * #%L
+ * Charts Benchmarks - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.List;
+import net.java.html.charts.Chart;
+import net.java.html.charts.ChartRenderer;
+import net.java.html.js.JavaScriptBody;
+
+/** Hands values over to JavaScript the same way the bundled renderers
+ * do, so the benchmarks measure the transfer of numeric series via the
+ * public API only. Never renders anything.
+ */
+final class Transfer extends ChartRenderer {
+    private Transfer() {
+    }
+
+    /** Transfers the values to JavaScript and decodes them there.
+     * @param values the values
+     * @return number of values decoded by JavaScript
+     */
+    static Object decode(double[] values) {
+        return decode(transfer(values, values.length), values.length);
+    }
+
+    @JavaScriptBody(args = { "data", "count" }, body = DECODE +
+        "return decode(data, count).length;\n"
+    )
+    private static native Object decode(Object data, int count);
+
+    @Override
+    protected boolean accepts(String type) {
+        return false;
+    }
+
+    @Override
+    protected Object create(Chart<?, ?> chart, String id, Object config) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected void update(Chart<?, ?> chart, Object graph, List<Change> changes) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected void destroy(Chart<?, ?> chart, Object graph) {
+        throw new UnsupportedOperationException();
+    }
+}
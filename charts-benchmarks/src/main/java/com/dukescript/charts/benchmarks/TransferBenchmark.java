@@ -0,0 +1,91 @@
+package com.dukescript.charts.benchmarks;
+
+/*
+ * #%L
+ * Charts Benchmarks - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import com.dukescript.charts.headless.RecordingPresenter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/** Measures the cost of handing a million doubles over to JavaScript
+ * and decoding them there, as done when a chart is displayed:
+ * <ul>
+ *   <li><code>shared</code> - a presenter sharing arrays with JavaScript
+ *     gets the array itself</li>
+ *   <li><code>headless</code> - the {@link RecordingPresenter} gets the values
+ *     packed into a base64 string, the cost of the encoding in Java</li>
+ * </ul>
+ * Decoding of the base64 string in a real browser is measured by
+ * the <code>transfer</code> workload of {@link RenderBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TransferBenchmark {
+    @Param({ "shared", "headless" })
+    String presenter;
+
+    private Closeable active;
+    private double[] values;
+
+    @Setup
+    public void setup() {
+        values = new double[1000000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.sin(i / 1000.0) * 100.0;
+        }
+        switch (presenter) {
+            case "shared":
+                active = new SharedArrayPresenter().activate();
+                break;
+            case "headless":
+                active = new RecordingPresenter(false).activate();
+                break;
+            default:
+                throw new IllegalStateException(presenter);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        active.close();
+    }
+
+    @Benchmark
+    public Object millionDoubles() {
+        return Transfer.decode(values);
+    }
+}
@@ -0,0 +1,253 @@
+package com.dukescript.charts.headless;
+
+/*
+ * #%L
+ * Charts Headless Tests - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.io.Reader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.netbeans.html.boot.spi.Fn;
+
+/** Presenter which doesn't render anything, it just records calls of
+ * {@link net.java.html.js.JavaScriptBody} methods. Activate it instead
+ * of a real browser and count how many times a chart talks to the browser:
+ * <pre>
+ * RecordingPresenter browser = new RecordingPresenter();
+ * try (Closeable c = browser.activate()) {
+ *   chart.applyTo("chart");
+ *   browser.reset();
+ *   chart.batch(...);
+ *   assertTrue(browser.getCallCount() &lt;= 2, browser.toString());
+ * }
+ * </pre>
+ * Methods returning a value get a fresh {@link Object} standing for
+ * the JavaScript object. Tasks submitted via {@link #execute(java.lang.Runnable)}
+ * are queued and run only by {@link #runPending()}, so tests decide when
+ * the presenter thread gets to work.
+ */
+public final class RecordingPresenter implements Fn.Presenter, Executor {
+    private final List<Call> calls = new ArrayList<>();
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final boolean keepCalls;
+    private int count;
+    private int scripts;
+
+    /** Creates new presenter with no calls recorded.
+     */
+    public RecordingPresenter() {
+        this(true);
+    }
+
+    /** Creates new presenter with no calls recorded. A presenter that
+     * doesn't keep the calls only counts them, so it can be used in
+     * benchmarks making millions of calls.
+     *
+     * @param keepCalls should the calls be kept for {@link #getCalls()}?
+     */
+    public RecordingPresenter(boolean keepCalls) {
+        this.keepCalls = keepCalls;
+    }
+
+    /** Makes this presenter the active one for the current thread.
+     * @return closeable to deactivate the presenter again
+     */
+    public Closeable activate() {
+        return Fn.activate(this);
+    }
+
+    @Override
+    public Fn defineFn(final String code, final String... names) {
+        return new Fn(this) {
+            @Override
+            public Object invoke(Object thiz, Object... args) throws Exception {
+                synchronized (RecordingPresenter.this) {
+                    count++;
+                    if (keepCalls) {
+                        calls.add(new Call(code, names, args));
+                    }
+                }
+                return new Object();
+            }
+        };
+    }
+
+    @Override
+    public void displayPage(URL page, Runnable onPageLoad) {
+        if (onPageLoad != null) {
+            execute(onPageLoad);
+        }
+    }
+
+    @Override
+    public synchronized void loadScript(Reader code) throws Exception {
+        scripts++;
+    }
+
+    /** Queues the task till {@link #runPending()} is called.
+     * @param command the task to run later
+     */
+    @Override
+    public synchronized void execute(Runnable command) {
+        tasks.add(command);
+    }
+
+    /** Runs all the queued tasks, including tasks they queue, with this
+     * presenter active.
+     *
+     * @return number of tasks that were run
+     * @throws Exception if a task fails
+     */
+    public int runPending() throws Exception {
+        int cnt = 0;
+        try (Closeable c = activate()) {
+            for (;;) {
+                Runnable[] arr;
+                synchronized (this) {
+                    if (tasks.isEmpty()) {
+                        return cnt;
+                    }
+                    arr = tasks.toArray(new Runnable[0]);
+                    tasks.clear();
+                }
+                for (Runnable r : arr) {
+                    r.run();
+                    cnt++;
+                }
+            }
+        }
+    }
+
+    /** Number of calls recorded since creation or last {@link #reset()}.
+     * @return number of calls
+     */
+    public synchronized int getCallCount() {
+        return count;
+    }
+
+    /** Number of calls of functions whose body contains given text.
+     * @param bodyFragment text to search for, like <code>"chart.update()"</code>
+     * @return number of matching calls
+     */
+    public synchronized int getCallCount(String bodyFragment) {
+        int cnt = 0;
+        for (Call c : calls) {
+            if (c.getBody().contains(bodyFragment)) {
+                cnt++;
+            }
+        }
+        return cnt;
+    }
+
+    /** Calls recorded since creation or last {@link #reset()}.
+     * @return copy of the recorded calls in order of invocation
+     */
+    public synchronized List<Call> getCalls() {
+        return new ArrayList<>(calls);
+    }
+
+    /** Number of scripts loaded, for example the bundled charting library.
+     * @return number of {@link #loadScript(java.io.Reader)} calls
+     */
+    public synchronized int getScriptCount() {
+        return scripts;
+    }
+
+    /** Forgets all recorded calls.
+     */
+    public synchronized void reset() {
+        count = 0;
+        calls.clear();
+    }
+
+    /** Lists the recorded calls, one per line. Handy as an assertion message.
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(count).append(" calls\n");
+        for (Call c : calls) {
+            sb.append(c).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /** Single recorded invocation of a JavaScript function.
+     */
+    public static final class Call {
+        private final String body;
+        private final String[] names;
+        private final Object[] args;
+
+        Call(String body, String[] names, Object[] args) {
+            this.body = body;
+            this.names = names;
+            this.args = args == null ? new Object[0] : args.clone();
+        }
+
+        /** Code of the function.
+         * @return the body of the {@link net.java.html.js.JavaScriptBody}
+         */
+        public String getBody() {
+            return body;
+        }
+
+        /** Value of an argument.
+         * @param name name of the argument as declared in
+         *   {@link net.java.html.js.JavaScriptBody#args()}
+         * @return the value or <code>null</code>
+         * @throws IllegalArgumentException if there is no such argument
+         */
+        public Object getArgument(String name) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(name)) {
+                    return i < args.length ? args[i] : null;
+                }
+            }
+            throw new IllegalArgumentException(name + " not in " + Arrays.toString(names));
+        }
+
+        /** Values of all arguments.
+         * @return copy of the arguments
+         */
+        public Object[] getArguments() {
+            return args.clone();
+        }
+
+        @Override
+        public String toString() {
+            String first = body.trim();
+            int nl = first.indexOf('\n');
+            if (nl >= 0) {
+                first = first.substring(0, nl) + "...";
+            }
+            return Arrays.toString(names) + " " + first;
+        }
+    }
+}
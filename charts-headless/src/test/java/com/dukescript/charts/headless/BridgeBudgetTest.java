@@ -0,0 +1,315 @@
+package com.dukescript.charts.headless;
+
+/*
+ * #%L
+ * Charts Headless Tests - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import net.java.html.charts.Chart;
+import net.java.html.charts.ChartFeed;
+import net.java.html.charts.ChartSubscriber;
+import net.java.html.charts.Color;
+import net.java.html.charts.Config;
+import net.java.html.charts.Segment;
+import net.java.html.charts.Values;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Keeps the number of calls the charts make to the browser within
+ * a budget. Each call crosses the bridge between Java and JavaScript,
+ * so the number shouldn't grow with the amount of data.
+ */
+public class BridgeBudgetTest {
+    private RecordingPresenter browser;
+
+    @BeforeMethod
+    public void initBrowser() {
+        browser = new RecordingPresenter();
+    }
+
+    private static Chart<Values, Config> line(int size) {
+        Chart<Values, Config> chart = Chart.createLine(
+            new Values.Set("First", Color.valueOf("red"), Color.valueOf("black")),
+            new Values.Set("Second", Color.valueOf("blue"), Color.valueOf("black"))
+        );
+        final List<Values> data = chart.getData();
+        for (int i = 0; i < size; i++) {
+            data.add(new Values("Value " + i, i, size - i));
+        }
+        return chart;
+    }
+
+    @Test
+    public void fillingChartIsPureJava() throws Exception {
+        try (Closeable c = browser.activate()) {
+            line(1000).getConfig().set("animation", false);
+        }
+        assertEquals(browser.getCallCount(), 0, browser.toString());
+    }
+
+    @Test
+    public void displayingChartDoesNotDependOnSize() throws Exception {
+        try (Closeable c = browser.activate()) {
+            line(10).applyTo("first");
+            // the first transfer also probes how the presenter passes arrays
+            assertTrue(browser.getCallCount() <= 4, "Shared config, probe, chart and listener: " + browser);
+            browser.reset();
+            line(10).applyTo("small");
+            final int small = browser.getCallCount();
+            browser.reset();
+            line(100000).applyTo("large");
+            assertEquals(browser.getCallCount(), small, browser.toString());
+            assertTrue(small <= 2, "Chart and listener: " + browser);
+        }
+    }
+
+    @Test
+    public void batchOfThousandUpdatesCostsAtMostTwoCalls() throws Exception {
+        try (Closeable c = browser.activate()) {
+            final Chart<Values, Config> chart = line(1000);
+            chart.applyTo("chart");
+            browser.reset();
+            chart.batch(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 1000; i++) {
+                        chart.getData().set(i, new Values("Updated " + i, -i, i));
+                    }
+                }
+            });
+        }
+        assertTrue(browser.getCallCount() <= 2, browser.toString());
+    }
+
+    @Test
+    public void destroyInsideBatch() throws Exception {
+        try (Closeable c = browser.activate()) {
+            for (final Chart<Values, Config> chart : Arrays.asList(line(100), line(100).downsample(10))) {
+                chart.applyTo("chart");
+                browser.reset();
+                chart.batch(new Runnable() {
+                    @Override
+                    public void run() {
+                        chart.getData().set(0, new Values("Before", 1, 2));
+                        chart.destroy();
+                        chart.getData().set(1, new Values("After", 1, 2));
+                    }
+                });
+                assertEquals(browser.getCallCount(), 1, "Only destroy: " + browser);
+                assertEquals(browser.getCallCount("js['destroy']()"), 1, browser.toString());
+            }
+        }
+    }
+
+    @Test
+    public void singleChangesAreSingleCalls() throws Exception {
+        try (Closeable c = browser.activate()) {
+            final Chart<Values, Config> chart = line(1000);
+            chart.applyTo("chart");
+            browser.reset();
+            chart.getData().add(new Values("Last", 1, 2));
+            chart.getData().set(10, new Values("Tenth", 1, 2));
+            chart.getData().remove(0);
+        }
+        assertEquals(browser.getCallCount(), 3, browser.toString());
+    }
+
+    @Test
+    public void appendToFullSlidingWindowIsOneCall() throws Exception {
+        try (Closeable c = browser.activate()) {
+            final Chart<Values, Config> chart = line(100).slidingWindow(100);
+            chart.applyTo("chart");
+            browser.reset();
+            for (int i = 0; i < 50; i++) {
+                chart.append(new Values("New " + i, i, i));
+            }
+            assertEquals(chart.getData().size(), 100);
+        }
+        assertEquals(browser.getCallCount(), 50, browser.toString());
+    }
+
+    @Test
+    public void downsampledChartSendsOnlyVisibleChanges() throws Exception {
+        try (Closeable c = browser.activate()) {
+            final Chart<Values, Config> chart = line(100000).downsample(500);
+            chart.applyTo("chart");
+            browser.reset();
+            chart.batch(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        chart.getData().add(new Values("More " + i, i, i));
+                    }
+                }
+            });
+        }
+        assertTrue(browser.getCallCount() <= 1, browser.toString());
+    }
+
+    @Test
+    public void feedDeliversManyElementsInOneCall() throws Exception {
+        final ChartFeed<Values> feed;
+        try (Closeable c = browser.activate()) {
+            final Chart<Values, Config> chart = line(10).slidingWindow(1000);
+            chart.applyTo("chart");
+            feed = ChartFeed.create(chart, 10000, ChartFeed.Overflow.REJECT);
+            browser.reset();
+        }
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(feed.offer(new Values("Fed " + i, i, i)));
+        }
+        assertEquals(browser.getCallCount(), 0, "Nothing sent before the presenter thread runs");
+        browser.runPending();
+        assertTrue(browser.getCallCount() <= 1, browser.toString());
+        assertEquals(feed.getPending(), 0);
+    }
+
+    @Test
+    public void subscriberCancelsPublisherIgnoringDemand() throws Exception {
+        final ChartSubscriber<Values> sink;
+        final Chart<Values, Config> chart;
+        try (Closeable c = browser.activate()) {
+            chart = line(10).slidingWindow(1000);
+            chart.applyTo("chart");
+            sink = ChartSubscriber.create(chart, 16);
+        }
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        sink.onSubscribe(new ChartSubscriber.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+                cancelled.set(true);
+            }
+        });
+        for (int i = 0; i < 20; i++) {
+            sink.onNext(new Values("Fed " + i, i, i));
+        }
+        assertTrue(cancelled.get(), "Subscription cancelled");
+        assertTrue(sink.getError() instanceof IllegalStateException, "Overflow reported: " + sink.getError());
+        browser.runPending();
+        assertTrue(sink.isDone());
+        assertEquals(chart.getData().size(), 26, "Requested elements delivered");
+    }
+
+    @Test
+    public void cancelledSubscriberSendsQueuedElements() throws Exception {
+        final ChartSubscriber<Values> sink;
+        final Chart<Values, Config> chart;
+        try (Closeable c = browser.activate()) {
+            chart = line(10).slidingWindow(1000);
+            chart.applyTo("chart");
+            sink = ChartSubscriber.create(chart, 16);
+        }
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        sink.onSubscribe(new ChartSubscriber.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+                cancelled.set(true);
+            }
+        });
+        for (int i = 0; i < 5; i++) {
+            sink.onNext(new Values("Fed " + i, i, i));
+        }
+        sink.cancel();
+        sink.onNext(new Values("Late", 0, 0));
+        assertTrue(cancelled.get(), "Subscription cancelled");
+        assertFalse(sink.isDone(), "Elements still queued");
+        browser.runPending();
+        assertTrue(sink.isDone());
+        assertEquals(chart.getData().size(), 15, "Queued elements delivered, late one dropped");
+    }
+
+    @Test
+    public void replaceAllSendsOnlyTheDifference() throws Exception {
+        try (Closeable c = browser.activate()) {
+            final Chart<Values, Config> chart = line(200);
+            chart.applyTo("chart");
+            browser.reset();
+            List<Values> snapshot = new ArrayList<>(chart.getData());
+            snapshot.set(10, new Values("Value 10", 1, 1));
+            snapshot.set(100, new Values("Value 100", 2, 2));
+            snapshot.set(199, new Values("Value 199", 3, 3));
+            chart.replaceAll(snapshot);
+            assertEquals(chart.getData(), snapshot);
+        }
+        assertEquals(browser.getCallCount(), 1, browser.toString());
+        final Object[] ops = (Object[]) browser.getCalls().get(0).getArgument("ops");
+        assertEquals(ops.length / 6, 3, "Three updates");
+    }
+
+    @Test
+    public void replaceAllOfShiftedSnapshot() throws Exception {
+        try (Closeable c = browser.activate()) {
+            final Chart<Values, Config> chart = line(200);
+            chart.applyTo("chart");
+            browser.reset();
+            List<Values> snapshot = new ArrayList<>(chart.getData().subList(5, 200));
+            for (int i = 200; i < 205; i++) {
+                snapshot.add(new Values("Value " + i, i, 0));
+            }
+            chart.replaceAll(snapshot);
+            assertEquals(chart.getData(), snapshot);
+        }
+        assertEquals(browser.getCallCount(), 1, browser.toString());
+        final Object[] ops = (Object[]) browser.getCalls().get(0).getArgument("ops");
+        assertEquals(ops.length / 6, 6, "One removal and five additions");
+    }
+
+    @Test
+    public void pieChurnInBatchIsOneCall() throws Exception {
+        try (Closeable c = browser.activate()) {
+            final Chart<Segment, Config> chart = Chart.createPie();
+            for (int i = 0; i < 100; i++) {
+                chart.getData().add(new Segment("Slice " + i, i, Color.valueOf("red"), Color.valueOf("blue")));
+            }
+            chart.applyTo("pie");
+            browser.reset();
+            chart.batch(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 50; i++) {
+                        chart.getData().remove(0);
+                        chart.getData().add(new Segment("New " + i, i, Color.valueOf("green"), Color.valueOf("blue")));
+                    }
+                }
+            });
+        }
+        assertEquals(browser.getCallCount(), 1, browser.toString());
+    }
+}
@@ -0,0 +1,91 @@
+package com.dukescript.charts.headless;
+
+/*
+ * #%L
+ * Charts Headless Tests - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.java.html.charts.Chart;
+import net.java.html.charts.ChartRenderer;
+
+/** Renderer remembering what it was asked to do. Registered as
+ * a service for radar charts.
+ */
+public final class RecordingRenderer extends ChartRenderer {
+    static final List<String> LOG = new ArrayList<>();
+    static boolean moving;
+
+    @Override
+    protected boolean accepts(String type) {
+        return "Radar".equals(type);
+    }
+
+    @Override
+    protected Object create(Chart<?, ?> chart, String id, Object config) {
+        LOG.add("create " + id + " " + typeOf(chart) + " " + displayed(chart).size());
+        return this;
+    }
+
+    @Override
+    protected void update(Chart<?, ?> chart, Object graph, List<Change> changes) {
+        for (Change c : changes) {
+            LOG.add(c.getKind() + " " + c.getIndex() + " " + c.getLabel());
+        }
+    }
+
+    @Override
+    protected void destroy(Chart<?, ?> chart, Object graph) {
+        LOG.add("destroy");
+    }
+
+    @Override
+    protected double[] positions(Chart<?, ?> chart, Object graph) {
+        LOG.add("positions");
+        if (displayed(chart).isEmpty()) {
+            return new double[] { 5, 0 };
+        }
+        return new double[] { 5, moving ? 1 : 0, 10, 10, 20, 20 };
+    }
+
+    @Override
+    protected void track(Chart<?, ?> chart, Object graph, boolean hover, boolean hitTest) {
+        LOG.add("track " + hover + " " + hitTest);
+    }
+
+    static void click(Chart<?, ?> chart, Object[] info) {
+        fireClick(chart, false, true, info);
+    }
+
+    static void hit(Chart<?, ?> chart, double x, double y) {
+        fireHit(chart, false, false, x, y, 100, 100);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(LOG.toArray());
+    }
+}
@@ -0,0 +1,271 @@
+package com.dukescript.charts.headless;
+
+/*
+ * #%L
+ * Charts Headless Tests - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import net.java.html.charts.Chart;
+import net.java.html.charts.ChartEvent;
+import net.java.html.charts.ChartListener;
+import net.java.html.charts.Color;
+import net.java.html.charts.Config;
+import net.java.html.charts.Segment;
+import net.java.html.charts.Values;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.fail;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class RendererTest {
+    private RecordingPresenter browser;
+
+    @BeforeMethod
+    public void clean() {
+        browser = new RecordingPresenter();
+        RecordingRenderer.LOG.clear();
+    }
+
+    private static Chart<Values, Config> radar() {
+        Chart<Values, Config> chart = Chart.createRadar(
+            new Values.Set("Set", Color.valueOf("red"), Color.valueOf("blue"))
+        );
+        for (int i = 0; i < 5; i++) {
+            chart.getData().add(new Values("V" + i, i));
+        }
+        return chart;
+    }
+
+    @Test
+    public void registeredRendererDrawsItsTypes() throws Exception {
+        try (Closeable c = browser.activate()) {
+            Chart<Values, Config> chart = radar();
+            chart.applyTo("radar");
+            chart.getData().set(1, new Values("Changed", 10));
+            chart.getData().remove(0);
+            chart.destroy();
+        }
+        assertEquals(RecordingRenderer.LOG, Arrays.asList(
+            "create radar Radar 5",
+            "SET 1 Changed",
+            "REMOVE 0 null",
+            "destroy"
+        ));
+        assertEquals(browser.getCallCount("new Chart(ctx)"), 0, "Chart.js not used: " + browser);
+    }
+
+    @Test
+    public void removeAllSendsOneRangePerRun() throws Exception {
+        try (Closeable c = browser.activate()) {
+            Chart<Values, Config> chart = radar();
+            for (int i = 5; i < 10; i++) {
+                chart.getData().add(new Values("V" + i, i));
+            }
+            chart.applyTo("radar");
+            RecordingRenderer.LOG.clear();
+            List<Values> data = chart.getData();
+            data.removeAll(Arrays.asList(data.get(1), data.get(2), data.get(5), data.get(8), data.get(9)));
+            List<String> labels = new ArrayList<>();
+            for (Values v : data) {
+                labels.add(v.getLabel());
+            }
+            assertEquals(labels, Arrays.asList("V0", "V3", "V4", "V6", "V7"));
+        }
+        assertEquals(RecordingRenderer.LOG, Arrays.asList(
+            "REMOVE 1 null",
+            "REMOVE 3 null",
+            "REMOVE 5 null"
+        ));
+    }
+
+    @Test
+    public void otherTypesUseChartJs() throws Exception {
+        try (Closeable c = browser.activate()) {
+            Chart.createLine(new Values.Set("Set", Color.valueOf("red"), Color.valueOf("blue"))).applyTo("line");
+        }
+        assertEquals(RecordingRenderer.LOG.size(), 0);
+        assertEquals(browser.getCallCount("new Chart(ctx)"), 1, browser.toString());
+    }
+
+    @Test
+    public void timeSeriesDrawnWithoutChartJs() throws Exception {
+        try (Closeable c = browser.activate()) {
+            Chart<Values, Config> chart = Chart.createTimeSeries(
+                new Values.Set("Set", Color.valueOf("red"), Color.valueOf("blue"))
+            );
+            for (int i = 0; i < 1000; i++) {
+                chart.getData().add(new Values("T" + i, i));
+            }
+            chart.applyTo("series");
+            browser.reset();
+            for (int i = 0; i < 100; i++) {
+                chart.getData().remove(0);
+                chart.getData().add(new Values("N" + i, i));
+            }
+            chart.destroy();
+        }
+        assertEquals(RecordingRenderer.LOG.size(), 0);
+        assertEquals(browser.getCallCount("new Chart(ctx)"), 0, "Chart.js not used: " + browser);
+        assertEquals(browser.getCallCount("graph['apply']"), 200, browser.toString());
+        assertEquals(browser.getCallCount("graph['destroy']"), 1, browser.toString());
+    }
+
+    @Test
+    public void segmentColorsReachChartJs() throws Exception {
+        final Chart<Segment, Config> pie = Chart.createPie();
+        pie.getData().add(new Segment("A", 1, Color.valueOf("red"), Color.valueOf("blue")));
+        pie.getData().add(new Segment("B", 2, Color.valueOf("red"), Color.valueOf("blue")));
+        try (Closeable c = browser.activate()) {
+            pie.applyTo("pie");
+            browser.reset();
+            pie.getData().set(0, new Segment("A", 3, Color.valueOf("green"), Color.valueOf("yellow")));
+            pie.batch(new Runnable() {
+                @Override
+                public void run() {
+                    pie.getData().set(1, new Segment("B", 4, Color.valueOf("black"), Color.valueOf("white")));
+                }
+            });
+        }
+        List<RecordingPresenter.Call> calls = browser.getCalls();
+        assertEquals(calls.size(), 2, browser.toString());
+        assertEquals(calls.get(0).getArgument("color"), "green");
+        assertEquals(calls.get(0).getArgument("highlight"), "yellow");
+        Object[] ops = (Object[]) calls.get(1).getArgument("ops");
+        assertEquals(Arrays.asList(ops), Arrays.<Object>asList("set", 1, "B", 4.0, "black", "white"));
+    }
+
+    @Test
+    public void rendererSelectedForChart() throws Exception {
+        try (Closeable c = browser.activate()) {
+            Chart<Values, Config> chart = Chart.createLine(new Values.Set("Set", Color.valueOf("red"), Color.valueOf("blue")));
+            try {
+                chart.renderWith(new RecordingRenderer());
+                fail("Radar only");
+            } catch (IllegalArgumentException ex) {
+                // OK
+            }
+            Chart<Values, Config> other = radar().renderWith(new RecordingRenderer());
+            other.applyTo("other");
+            try {
+                other.renderWith(new RecordingRenderer());
+                fail("Too late");
+            } catch (IllegalStateException ex) {
+                // OK
+            }
+        }
+        assertEquals(RecordingRenderer.LOG.get(0), "create other Radar 5");
+    }
+
+    @Test
+    public void eventsFromRenderer() throws Exception {
+        final ChartEvent[] last = { null };
+        Chart<Values, Config> chart = radar();
+        try (Closeable c = browser.activate()) {
+            chart.addChartListener(new ChartListener() {
+                @Override
+                public void chartClick(ChartEvent ev) {
+                    last[0] = ev;
+                }
+            });
+            chart.applyTo("events");
+            RecordingRenderer.click(chart, new Object[] { "V3", 3.0, 0, 3 });
+            assertNotNull(last[0]);
+            assertEquals(last[0].getLabel(), "V3");
+            assertEquals(last[0].getIndex(), 3);
+            assertEquals(last[0].isCtrlKey(), true);
+
+            chart.spatialHitTest();
+            RecordingRenderer.hit(chart, 19, 21);
+            assertEquals(last[0].getLabel(), "V1", "Second point is at 20, 20");
+        }
+        assertEquals(RecordingRenderer.LOG.get(1), "track false true");
+    }
+
+    @Test
+    public void noSpatialHitTestForTimeSeries() {
+        Chart<Values, Config> chart = Chart.createTimeSeries(
+            new Values.Set("Set", Color.valueOf("red"), Color.valueOf("blue"))
+        );
+        try {
+            chart.spatialHitTest();
+            fail("Time series renderer provides no positions");
+        } catch (IllegalStateException ex) {
+            // OK
+        }
+    }
+
+    @Test
+    public void positionsAreCachedOnlyAfterAnimation() throws Exception {
+        final ChartEvent[] last = { null };
+        Chart<Values, Config> chart = radar().spatialHitTest();
+        try (Closeable c = browser.activate()) {
+            chart.addChartListener(new ChartListener() {
+                @Override
+                public void chartClick(ChartEvent ev) {
+                    last[0] = ev;
+                }
+            });
+            chart.applyTo("animated");
+            RecordingRenderer.moving = true;
+            RecordingRenderer.hit(chart, 19, 21);
+            RecordingRenderer.hit(chart, 19, 21);
+            assertEquals(Collections.frequency(RecordingRenderer.LOG, "positions"), 2, "Read again while moving");
+            RecordingRenderer.moving = false;
+            RecordingRenderer.hit(chart, 19, 21);
+            RecordingRenderer.hit(chart, 11, 9);
+            assertEquals(Collections.frequency(RecordingRenderer.LOG, "positions"), 3, "Cached when still");
+            assertEquals(last[0].getLabel(), "V0");
+        } finally {
+            RecordingRenderer.moving = false;
+        }
+    }
+
+    @Test
+    public void hitOnEmptyChart() throws Exception {
+        final ChartEvent[] last = { null };
+        Chart<Values, Config> chart = Chart.createRadar(
+            new Values.Set("Set", Color.valueOf("red"), Color.valueOf("blue"))
+        ).spatialHitTest();
+        try (Closeable c = browser.activate()) {
+            chart.addChartListener(new ChartListener() {
+                @Override
+                public void chartClick(ChartEvent ev) {
+                    last[0] = ev;
+                }
+            });
+            chart.applyTo("empty");
+            RecordingRenderer.hit(chart, 10, 10);
+        }
+        assertNotNull(last[0]);
+        assertNull(last[0].getLabel());
+        assertEquals(last[0].getIndex(), -1);
+    }
+}
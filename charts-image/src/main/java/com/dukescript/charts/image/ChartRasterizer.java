@@ -0,0 +1,198 @@
+package com.dukescript.charts.image;
+
+
+/*
+ * #%L
+ * Charts Images - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import javax.imageio.ImageIO;
+import net.java.html.charts.Chart;
+import net.java.html.charts.Config;
+
+/** Draws {@link Chart charts} into images without any browser. The same
+ * {@link Chart#getData() data}, {@link Chart#getDataSets() sets} and
+ * {@link Chart#getConfig() configuration} that are shown on an HTML page
+ * are painted by {@link Graphics2D}, so reports can be generated on
+ * a server:
+ * <pre>
+ * ChartRasterizer raster = ChartRasterizer.create(800, 400);
+ * try (OutputStream os = new FileOutputStream("sales.png")) {
+ *   raster.writePng(chart, os);
+ * }
+ * </pre>
+ * Many charts are best rendered at once by {@link #renderAll(java.util.List)} -
+ * they are drawn in parallel on a {@link ForkJoinPool}. Values of
+ * big charts are {@link #render(net.java.html.charts.Chart) reduced} to
+ * the resolution of the image in parallel as well.
+ * <p>
+ * The rasterizer is immutable and can be shared by many threads. The charts
+ * must not be modified while they are being rendered. Charts don't need to be
+ * {@link Chart#applyTo(java.lang.String) displayed} and no presenter
+ * needs to be active.
+ */
+public final class ChartRasterizer {
+    private static ForkJoinPool shared;
+
+    private final int width;
+    private final int height;
+    private final Color background;
+    private final ForkJoinPool pool;
+
+    private ChartRasterizer(int width, int height, Color background, ForkJoinPool pool) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Size: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.background = background;
+        this.pool = pool;
+    }
+
+    /** Creates rasterizer producing images of given size with
+     * transparent background.
+     *
+     * @param width width of the images in pixels
+     * @param height height of the images in pixels
+     * @return new rasterizer
+     * @throws IllegalArgumentException if the size isn't positive
+     */
+    public static ChartRasterizer create(int width, int height) {
+        return new ChartRasterizer(width, height, null, null);
+    }
+
+    /** Creates rasterizer with a background.
+     *
+     * @param background color to fill the images with before drawing a chart,
+     *   <code>null</code> keeps them transparent
+     * @return new rasterizer, <code>this</code> remains unchanged
+     */
+    public ChartRasterizer withBackground(Color background) {
+        return new ChartRasterizer(width, height, background, pool);
+    }
+
+    /** Creates rasterizer using given pool. By default all rasterizers
+     * share a pool with as many threads as there are processors.
+     *
+     * @param pool the pool to render in
+     * @return new rasterizer, <code>this</code> remains unchanged
+     */
+    public ChartRasterizer withPool(ForkJoinPool pool) {
+        return new ChartRasterizer(width, height, background, pool);
+    }
+
+    /** Draws a chart.
+     *
+     * @param chart the chart to draw
+     * @return new image with the chart
+     * @throws IllegalArgumentException if the type of the chart isn't known
+     */
+    public BufferedImage render(Chart<?, ?> chart) {
+        final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g = image.createGraphics();
+        try {
+            if (background != null) {
+                g.setColor(background);
+                g.fillRect(0, 0, width, height);
+            }
+            final Config config = chart.getConfig();
+            new Painter(g, width, height, new Options(config), pool()).paint(chart);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    /** Draws many charts in parallel.
+     *
+     * @param charts the charts to draw
+     * @return images in the same order as the charts
+     * @throws IllegalArgumentException if the type of some chart isn't known
+     */
+    public List<BufferedImage> renderAll(List<? extends Chart<?, ?>> charts) {
+        final Chart<?, ?>[] arr = charts.toArray(new Chart<?, ?>[0]);
+        final BufferedImage[] images = new BufferedImage[arr.length];
+        pool().invoke(new Batch(arr, images, 0, arr.length));
+        return new ArrayList<>(Arrays.asList(images));
+    }
+
+    /** Draws a chart and writes it as PNG.
+     *
+     * @param chart the chart to draw
+     * @param os the stream to write to, remains open
+     * @throws IOException if writing fails
+     */
+    public void writePng(Chart<?, ?> chart, OutputStream os) throws IOException {
+        if (!ImageIO.write(render(chart), "png", os)) {
+            throw new IOException("No PNG writer");
+        }
+    }
+
+    private ForkJoinPool pool() {
+        if (pool != null) {
+            return pool;
+        }
+        synchronized (ChartRasterizer.class) {
+            if (shared == null) {
+                shared = new ForkJoinPool();
+            }
+            return shared;
+        }
+    }
+
+    private final class Batch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Chart<?, ?>[] charts;
+        private final BufferedImage[] images;
+        private final int from;
+        private final int to;
+
+        Batch(Chart<?, ?>[] charts, BufferedImage[] images, int from, int to) {
+            this.charts = charts;
+            this.images = images;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                images[from] = render(charts[from]);
+            } else if (to > from) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Batch(charts, images, from, middle), new Batch(charts, images, middle, to));
+            }
+        }
+    }
+}
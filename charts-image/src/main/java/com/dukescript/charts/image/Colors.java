@@ -0,0 +1,135 @@
+package com.dukescript.charts.image;
+
+
+/*
+ * #%L
+ * Charts Images - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.awt.Color;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/** Turns colors of the charts, specified as in HTML, into AWT ones.
+ * Understands <code>#rgb</code>, <code>#rrggbb</code>, <code>rgb(...)</code>,
+ * <code>rgba(...)</code> and the basic named colors.
+ */
+final class Colors {
+    private static final Map<String, Color> NAMED = new HashMap<>();
+    static {
+        NAMED.put("transparent", new Color(0, 0, 0, 0));
+        NAMED.put("black", Color.BLACK);
+        NAMED.put("silver", new Color(0xc0c0c0));
+        NAMED.put("gray", new Color(0x808080));
+        NAMED.put("grey", new Color(0x808080));
+        NAMED.put("white", Color.WHITE);
+        NAMED.put("maroon", new Color(0x800000));
+        NAMED.put("red", new Color(0xff0000));
+        NAMED.put("purple", new Color(0x800080));
+        NAMED.put("fuchsia", new Color(0xff00ff));
+        NAMED.put("magenta", new Color(0xff00ff));
+        NAMED.put("green", new Color(0x008000));
+        NAMED.put("lime", new Color(0x00ff00));
+        NAMED.put("olive", new Color(0x808000));
+        NAMED.put("yellow", new Color(0xffff00));
+        NAMED.put("navy", new Color(0x000080));
+        NAMED.put("blue", new Color(0x0000ff));
+        NAMED.put("teal", new Color(0x008080));
+        NAMED.put("aqua", new Color(0x00ffff));
+        NAMED.put("cyan", new Color(0x00ffff));
+        NAMED.put("orange", new Color(0xffa500));
+        NAMED.put("pink", new Color(0xffc0cb));
+        NAMED.put("brown", new Color(0xa52a2a));
+        NAMED.put("lightgray", new Color(0xd3d3d3));
+        NAMED.put("lightgrey", new Color(0xd3d3d3));
+        NAMED.put("darkgray", new Color(0xa9a9a9));
+        NAMED.put("darkgrey", new Color(0xa9a9a9));
+    }
+
+    private Colors() {
+    }
+
+    /** Parses the color.
+     *
+     * @param css the color as used in HTML, may be <code>null</code>
+     * @param fallback color to use when the value isn't recognized
+     * @return the color
+     */
+    static Color parse(Object css, Color fallback) {
+        if (css == null) {
+            return fallback;
+        }
+        String s = css.toString().trim().toLowerCase(Locale.ENGLISH);
+        try {
+            if (s.startsWith("#")) {
+                if (s.length() == 4) {
+                    int r = Integer.parseInt(s.substring(1, 2), 16);
+                    int g = Integer.parseInt(s.substring(2, 3), 16);
+                    int b = Integer.parseInt(s.substring(3, 4), 16);
+                    return new Color(r * 17, g * 17, b * 17);
+                }
+                if (s.length() == 7) {
+                    return new Color(Integer.parseInt(s.substring(1), 16));
+                }
+                return fallback;
+            }
+            if (s.startsWith("rgb")) {
+                int open = s.indexOf('(');
+                int close = s.lastIndexOf(')');
+                if (open < 0 || close < open) {
+                    return fallback;
+                }
+                String[] parts = s.substring(open + 1, close).split(",");
+                if (parts.length < 3) {
+                    return fallback;
+                }
+                int r = component(parts[0]);
+                int g = component(parts[1]);
+                int b = component(parts[2]);
+                int a = 255;
+                if (parts.length > 3) {
+                    double alpha = Double.parseDouble(parts[3].trim());
+                    a = (int) Math.round(Math.max(0.0, Math.min(1.0, alpha)) * 255.0);
+                }
+                return new Color(r, g, b, a);
+            }
+        } catch (NumberFormatException ex) {
+            return fallback;
+        }
+        final Color named = NAMED.get(s);
+        return named == null ? fallback : named;
+    }
+
+    private static int component(String value) {
+        String v = value.trim();
+        double d;
+        if (v.endsWith("%")) {
+            d = Double.parseDouble(v.substring(0, v.length() - 1)) * 2.55;
+        } else {
+            d = Double.parseDouble(v);
+        }
+        return (int) Math.round(Math.max(0.0, Math.min(255.0, d)));
+    }
+}
@@ -0,0 +1,146 @@
+package com.dukescript.charts.image;
+
+
+/*
+ * #%L
+ * Charts Images - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import net.java.html.charts.Values;
+
+/** Values reduced to the resolution of the image. For each pixel column
+ * and data set keeps the first, the last, the smallest and the biggest
+ * value that falls into the column. Drawing a line through them looks
+ * the same as drawing all the values, yet costs only a few segments
+ * per column. The columns are computed in parallel.
+ */
+final class Envelope {
+    /** values each task handles at least */
+    private static final int THRESHOLD = 1 << 14;
+
+    final int columns;
+    final int sets;
+    final double[] first;
+    final double[] last;
+    final double[] min;
+    final double[] max;
+    private final List<?> data;
+
+    private Envelope(List<?> data, int sets, int columns) {
+        this.data = data;
+        this.sets = sets;
+        this.columns = columns;
+        this.first = new double[columns * sets];
+        this.last = new double[columns * sets];
+        this.min = new double[columns * sets];
+        this.max = new double[columns * sets];
+    }
+
+    /** Computes the envelope.
+     *
+     * @param data list of {@link Values}, at least as many as columns
+     * @param sets number of data sets
+     * @param columns number of pixel columns
+     * @param pool the pool to compute in unless already running in one
+     */
+    static Envelope of(List<?> data, int sets, int columns, ForkJoinPool pool) {
+        final Envelope e = new Envelope(data, sets, columns);
+        final Part all = e.new Part(0, columns);
+        if (ForkJoinTask.inForkJoinPool() || data.size() <= THRESHOLD) {
+            all.invoke();
+        } else {
+            pool.invoke(all);
+        }
+        return e;
+    }
+
+    /** Index of first value in the column.
+     */
+    int from(int column) {
+        return (int) ((long) column * data.size() / columns);
+    }
+
+    double lowest() {
+        double m = Double.POSITIVE_INFINITY;
+        for (double v : min) {
+            m = Math.min(m, v);
+        }
+        return m;
+    }
+
+    double highest() {
+        double m = Double.NEGATIVE_INFINITY;
+        for (double v : max) {
+            m = Math.max(m, v);
+        }
+        return m;
+    }
+
+    private void compute(int fromColumn, int toColumn) {
+        for (int c = fromColumn; c < toColumn; c++) {
+            final int begin = from(c);
+            final int end = from(c + 1);
+            for (int i = begin; i < end; i++) {
+                final Values v = (Values) data.get(i);
+                for (int s = 0; s < sets; s++) {
+                    final double value = v.getValue(s);
+                    final int at = c * sets + s;
+                    if (i == begin) {
+                        first[at] = min[at] = max[at] = value;
+                    } else if (value < min[at]) {
+                        min[at] = value;
+                    } else if (value > max[at]) {
+                        max[at] = value;
+                    }
+                    last[at] = value;
+                }
+            }
+        }
+    }
+
+    private final class Part extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int fromColumn;
+        private final int toColumn;
+
+        Part(int fromColumn, int toColumn) {
+            this.fromColumn = fromColumn;
+            this.toColumn = toColumn;
+        }
+
+        @Override
+        protected void compute() {
+            if (toColumn - fromColumn < 2 || from(toColumn) - from(fromColumn) <= THRESHOLD) {
+                Envelope.this.compute(fromColumn, toColumn);
+                return;
+            }
+            int middle = (fromColumn + toColumn) >>> 1;
+            invokeAll(new Part(fromColumn, middle), new Part(middle, toColumn));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.dukescript.charts.image;
+
+
+/*
+ * #%L
+ * Charts Images - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.awt.Color;
+import net.java.html.charts.Config;
+
+/** Typed access to the properties of a {@link Config}. The names
+ * and defaults follow the
+ * <a href="https://github.com/chartjs/Chart.js/blob/v1.0.2/docs/00-Getting-Started.md">
+ * Chart.js configuration</a>, so a chart looks alike in the browser and
+ * in an image.
+ */
+final class Options {
+    private final Config config;
+
+    Options(Config config) {
+        this.config = config;
+    }
+
+    boolean flag(String name, boolean def) {
+        Object v = config == null ? null : config.get(name);
+        if (v instanceof Boolean) {
+            return (Boolean) v;
+        }
+        if (v instanceof String) {
+            return Boolean.parseBoolean((String) v);
+        }
+        return def;
+    }
+
+    double number(String name, double def) {
+        Object v = config == null ? null : config.get(name);
+        if (v instanceof Number) {
+            return ((Number) v).doubleValue();
+        }
+        if (v instanceof String) {
+            try {
+                return Double.parseDouble((String) v);
+            } catch (NumberFormatException ex) {
+                return def;
+            }
+        }
+        return def;
+    }
+
+    Color color(String name, Color def) {
+        return Colors.parse(config == null ? null : config.get(name), def);
+    }
+}
@@ -0,0 +1,423 @@
+package com.dukescript.charts.image;
+
+
+/*
+ * #%L
+ * Charts Images - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import net.java.html.charts.Chart;
+import net.java.html.charts.ChartLayout;
+import net.java.html.charts.Segment;
+import net.java.html.charts.Values;
+
+/** Draws one chart with {@link Graphics2D}. Mimics the layout of
+ * <a href="http://www.chartjs.org">Chart.js</a> - value axis on the left,
+ * labels below, the same defaults of colors and sizes. The geometry
+ * comes from {@link ChartLayout}, so the image matches the SVG export.
+ */
+final class Painter implements ChartLayout.Measure {
+    private static final Color GRID = new Color(0, 0, 0, 13);
+    private static final Color TEXT = new Color(0x666666);
+
+    private final Graphics2D g;
+    private final int width;
+    private final int height;
+    private final Options options;
+    private final ForkJoinPool pool;
+    private final FontMetrics metrics;
+
+    Painter(Graphics2D g, int width, int height, Options options, ForkJoinPool pool) {
+        this.g = g;
+        this.width = width;
+        this.height = height;
+        this.options = options;
+        this.pool = pool;
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+        g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, (int) options.number("scaleFontSize", 12)));
+        this.metrics = g.getFontMetrics();
+    }
+
+    void paint(Chart<?, ?> chart) {
+        final List<?> data = chart.getData();
+        final Values.Set[] sets = chart.getDataSets();
+        switch (chart.getType()) {
+            case "Line":
+            case "TimeSeries":
+                lines(chart, data, sets);
+                break;
+            case "Bar":
+                bars(chart, data, sets);
+                break;
+            case "Radar":
+                radar(chart, data, sets);
+                break;
+            case "Pie":
+                pie(chart, data, 0);
+                break;
+            case "Doughnut":
+                pie(chart, data, options.number("percentageInnerCutout", 50));
+                break;
+            case "PolarArea":
+                polar(chart, data);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown type: " + chart.getType());
+        }
+    }
+
+    //
+    // charts with axes
+    //
+
+    private void lines(Chart<?, ?> chart, List<?> data, Values.Set[] sets) {
+        final int n = data.size();
+        final Envelope envelope = n > width ? Envelope.of(data, sets.length, width, pool) : null;
+        final ChartLayout layout = layout(chart, data, sets.length, envelope);
+        final Rectangle2D plot = axes(data, layout);
+        final double bottom = plot.getMaxY();
+        final boolean fill = options.flag("datasetFill", true);
+        final boolean stroke = options.flag("datasetStroke", true);
+        final float lineWidth = (float) options.number("datasetStrokeWidth", 2);
+        final double radius = options.number("pointDotRadius", 4);
+        final boolean dots = options.flag("pointDot", true) && n * (2 * radius + 2) <= plot.getWidth();
+        final Path2D.Double line = new Path2D.Double();
+        for (int s = 0; s < sets.length; s++) {
+            line.reset();
+            double firstX = 0;
+            double lastX = 0;
+            if (envelope != null) {
+                final double columnWidth = plot.getWidth() / envelope.columns;
+                for (int c = 0; c < envelope.columns; c++) {
+                    final int at = c * envelope.sets + s;
+                    final double x = plot.getX() + (c + 0.5) * columnWidth;
+                    final double y1 = layout.y(envelope.first[at]);
+                    if (c == 0) {
+                        line.moveTo(x, y1);
+                        firstX = x;
+                    } else {
+                        line.lineTo(x, y1);
+                    }
+                    line.lineTo(x, layout.y(envelope.min[at]));
+                    line.lineTo(x, layout.y(envelope.max[at]));
+                    line.lineTo(x, layout.y(envelope.last[at]));
+                    lastX = x;
+                }
+            } else {
+                for (int i = 0; i < n; i++) {
+                    final double x = layout.x(i);
+                    final double y = layout.y(((Values) data.get(i)).getValue(s));
+                    if (i == 0) {
+                        line.moveTo(x, y);
+                        firstX = x;
+                    } else {
+                        line.lineTo(x, y);
+                    }
+                    lastX = x;
+                }
+            }
+            if (n == 0) {
+                continue;
+            }
+            if (fill) {
+                final Path2D.Double area = new Path2D.Double(line);
+                area.lineTo(lastX, bottom);
+                area.lineTo(firstX, bottom);
+                area.closePath();
+                g.setColor(Colors.parse(sets[s].getFillColor(), GRID));
+                g.fill(area);
+            }
+            final Color strokeColor = Colors.parse(sets[s].getStrokeColor(), TEXT);
+            if (stroke) {
+                g.setColor(strokeColor);
+                g.setStroke(new BasicStroke(lineWidth, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+                g.draw(line);
+            }
+            if (dots) {
+                g.setStroke(new BasicStroke(1));
+                for (int i = 0; i < n; i++) {
+                    final Ellipse2D.Double dot = new Ellipse2D.Double(
+                        layout.x(i) - radius, layout.y(((Values) data.get(i)).getValue(s)) - radius,
+                        2 * radius, 2 * radius
+                    );
+                    g.setColor(strokeColor);
+                    g.fill(dot);
+                    g.setColor(Color.WHITE);
+                    g.draw(dot);
+                }
+            }
+        }
+    }
+
+    private void bars(Chart<?, ?> chart, List<?> data, Values.Set[] sets) {
+        final int n = data.size();
+        final Envelope envelope = n > width ? Envelope.of(data, sets.length, width, pool) : null;
+        final ChartLayout layout = layout(chart, data, sets.length, envelope);
+        final Rectangle2D plot = axes(data, layout);
+        final double base = layout.y(Math.max(layout.getStart(), Math.min(0, layout.getEnd())));
+        final boolean showStroke = options.flag("barShowStroke", true);
+        final float strokeWidth = (float) options.number("barStrokeWidth", 2);
+        g.setStroke(new BasicStroke(strokeWidth));
+        if (envelope != null) {
+            final double columnWidth = plot.getWidth() / envelope.columns;
+            for (int s = 0; s < sets.length; s++) {
+                g.setColor(Colors.parse(sets[s].getFillColor(), GRID));
+                for (int c = 0; c < envelope.columns; c++) {
+                    final int at = c * envelope.sets + s;
+                    final double top = layout.y(Math.max(0, envelope.max[at]));
+                    final double low = layout.y(Math.min(0, envelope.min[at]));
+                    g.fill(new Rectangle2D.Double(plot.getX() + c * columnWidth, Math.min(top, base), columnWidth, Math.abs(low - top)));
+                }
+            }
+            return;
+        }
+        final double group = plot.getWidth() / Math.max(1, n);
+        final double valueSpacing = Math.min(options.number("barValueSpacing", 5), group / 4);
+        final double setSpacing = options.number("barDatasetSpacing", 1);
+        final double barWidth = Math.max(1, (group - 2 * valueSpacing - setSpacing * (sets.length - 1)) / sets.length);
+        for (int i = 0; i < n; i++) {
+            final Values v = (Values) data.get(i);
+            for (int s = 0; s < sets.length; s++) {
+                final double x = plot.getX() + i * group + valueSpacing + s * (barWidth + setSpacing);
+                final double y = layout.y(v.getValue(s));
+                final Rectangle2D.Double bar = new Rectangle2D.Double(x, Math.min(y, base), barWidth, Math.abs(base - y));
+                g.setColor(Colors.parse(sets[s].getFillColor(), GRID));
+                g.fill(bar);
+                if (showStroke) {
+                    g.setColor(Colors.parse(sets[s].getStrokeColor(), TEXT));
+                    g.draw(bar);
+                }
+            }
+        }
+    }
+
+    private ChartLayout layout(Chart<?, ?> chart, List<?> data, int sets, Envelope envelope) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        if (envelope != null) {
+            min = envelope.lowest();
+            max = envelope.highest();
+        } else {
+            for (Object o : data) {
+                final Values v = (Values) o;
+                for (int s = 0; s < sets; s++) {
+                    min = Math.min(min, v.getValue(s));
+                    max = Math.max(max, v.getValue(s));
+                }
+            }
+        }
+        return ChartLayout.create(chart, width, height, min, max, this);
+    }
+
+    /** Draws the scale and the labels.
+     * @return the area for the values
+     */
+    private Rectangle2D axes(List<?> data, ChartLayout layout) {
+        final Rectangle2D plot = new Rectangle2D.Double(
+            layout.getPlotX(), layout.getPlotY(), layout.getPlotWidth(), layout.getPlotHeight()
+        );
+        if (!options.flag("showScale", true)) {
+            return plot;
+        }
+        final boolean showLabels = options.flag("scaleShowLabels", true);
+        final Color gridColor = options.color("scaleGridLineColor", GRID);
+        final boolean grid = options.flag("scaleShowGridLines", true);
+        final Color text = options.color("scaleFontColor", TEXT);
+        final int steps = layout.getSteps();
+        g.setStroke(new BasicStroke((float) options.number("scaleGridLineWidth", 1)));
+        for (int i = 0; i <= steps; i++) {
+            final double y = plot.getMaxY() - plot.getHeight() * i / steps;
+            if (grid || i == 0) {
+                g.setColor(i == 0 ? options.color("scaleLineColor", new Color(0, 0, 0, 25)) : gridColor);
+                g.draw(new Line2D.Double(plot.getX(), y, plot.getMaxX(), y));
+            }
+            if (showLabels) {
+                final String label = layout.getLabel(i);
+                g.setColor(text);
+                g.drawString(label, (float) (plot.getX() - 10 - metrics.stringWidth(label)), (float) (y + metrics.getAscent() / 2.0 - 1));
+            }
+        }
+        // labels along the other axis - as many as fit
+        final int n = data.size();
+        final int every = layout.getLabelInterval();
+        g.setColor(text);
+        for (int i = 0; i < n; i += every) {
+            final String label = layout.getElementLabel(i);
+            float at = (float) (layout.x(i) - metrics.stringWidth(label) / 2.0);
+            at = Math.max(0, Math.min(width - metrics.stringWidth(label), at));
+            g.drawString(label, at, (float) (plot.getMaxY() + 5 + metrics.getAscent()));
+        }
+        return plot;
+    }
+
+    @Override
+    public double width(String text) {
+        return metrics.stringWidth(text);
+    }
+
+    //
+    // charts around a center
+    //
+
+    private void radar(Chart<?, ?> chart, List<?> data, Values.Set[] sets) {
+        final int n = data.size();
+        final ChartLayout layout = layout(chart, data, sets.length, null);
+        final double cx = width / 2.0;
+        final double cy = height / 2.0;
+        final double radius = layout.getRadius();
+        if (n == 0) {
+            return;
+        }
+        final Color gridColor = options.color("scaleLineColor", new Color(0, 0, 0, 25));
+        g.setStroke(new BasicStroke(1));
+        g.setColor(gridColor);
+        for (int step = 1; step <= layout.getSteps(); step++) {
+            g.draw(polygon(cx, cy, radius * step / layout.getSteps(), n, null, null, 0));
+        }
+        for (int i = 0; i < n; i++) {
+            final double angle = angle(i, n);
+            g.setColor(options.color("angleLineColor", gridColor));
+            g.draw(new Line2D.Double(cx, cy, cx + radius * Math.cos(angle), cy + radius * Math.sin(angle)));
+            final String label = layout.getElementLabel(i);
+            final double lx = cx + (radius + 5) * Math.cos(angle);
+            final double ly = cy + (radius + 5) * Math.sin(angle);
+            final double shift = (Math.cos(angle) - 1) / 2 * metrics.stringWidth(label);
+            g.setColor(options.color("pointLabelFontColor", TEXT));
+            g.drawString(label, (float) (lx + shift), (float) (ly + (Math.sin(angle) + 1) / 2 * metrics.getAscent()));
+        }
+        final boolean fill = options.flag("datasetFill", true);
+        for (int s = 0; s < sets.length; s++) {
+            final Path2D.Double shape = polygon(cx, cy, radius, n, data, layout, s);
+            if (fill) {
+                g.setColor(Colors.parse(sets[s].getFillColor(), GRID));
+                g.fill(shape);
+            }
+            if (options.flag("datasetStroke", true)) {
+                g.setColor(Colors.parse(sets[s].getStrokeColor(), TEXT));
+                g.setStroke(new BasicStroke((float) options.number("datasetStrokeWidth", 2)));
+                g.draw(shape);
+            }
+        }
+    }
+
+    private static Path2D.Double polygon(double cx, double cy, double radius, int n, List<?> data, ChartLayout layout, int set) {
+        final Path2D.Double p = new Path2D.Double();
+        for (int i = 0; i < n; i++) {
+            double r = radius;
+            if (data != null) {
+                r = radius * Math.max(0, layout.ratio(((Values) data.get(i)).getValue(set)));
+            }
+            final double x = cx + r * Math.cos(angle(i, n));
+            final double y = cy + r * Math.sin(angle(i, n));
+            if (i == 0) {
+                p.moveTo(x, y);
+            } else {
+                p.lineTo(x, y);
+            }
+        }
+        p.closePath();
+        return p;
+    }
+
+    private static double angle(int index, int n) {
+        return -Math.PI / 2 + 2 * Math.PI * index / n;
+    }
+
+    private void pie(Chart<?, ?> chart, List<?> data, double cutoutPercentage) {
+        double total = 0;
+        for (Object o : data) {
+            total += Math.max(0, ((Segment) o).getValue());
+        }
+        final double radius = ChartLayout.create(chart, width, height, 0, 0, this).getRadius();
+        final double cx = width / 2.0;
+        final double cy = height / 2.0;
+        final double inner = radius * Math.max(0, Math.min(100, cutoutPercentage)) / 100;
+        double start = 90;
+        for (Object o : data) {
+            final Segment s = (Segment) o;
+            final double extent = total <= 0 ? 0 : -360 * Math.max(0, s.getValue()) / total;
+            segment(s, cx, cy, radius, inner, start, extent);
+            start += extent;
+        }
+    }
+
+    private void polar(Chart<?, ?> chart, List<?> data) {
+        final int n = data.size();
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (Object o : data) {
+            min = Math.min(min, ((Segment) o).getValue());
+            max = Math.max(max, ((Segment) o).getValue());
+        }
+        final ChartLayout layout = ChartLayout.create(chart, width, height, min, max, this);
+        final double radius = layout.getRadius();
+        final double cx = width / 2.0;
+        final double cy = height / 2.0;
+        double start = 90;
+        for (Object o : data) {
+            final Segment s = (Segment) o;
+            final double r = radius * Math.max(0, Math.min(1, layout.ratio(s.getValue())));
+            segment(s, cx, cy, r, 0, start, -360.0 / n);
+            start -= 360.0 / n;
+        }
+        if (options.flag("showScale", true)) {
+            g.setStroke(new BasicStroke(1));
+            g.setColor(options.color("scaleLineColor", new Color(0, 0, 0, 25)));
+            for (int step = 1; step <= layout.getSteps(); step++) {
+                final double r = radius * step / layout.getSteps();
+                g.draw(new Ellipse2D.Double(cx - r, cy - r, 2 * r, 2 * r));
+            }
+        }
+    }
+
+    private void segment(Segment s, double cx, double cy, double radius, double inner, double start, double extent) {
+        final Area area = new Area(new Arc2D.Double(cx - radius, cy - radius, 2 * radius, 2 * radius, start, extent, Arc2D.PIE));
+        if (inner > 0) {
+            area.subtract(new Area(new Ellipse2D.Double(cx - inner, cy - inner, 2 * inner, 2 * inner)));
+        }
+        g.setColor(Colors.parse(s.getColor(), TEXT));
+        g.fill(area);
+        if (options.flag("segmentShowStroke", true)) {
+            g.setColor(options.color("segmentStrokeColor", Color.WHITE));
+            g.setStroke(new BasicStroke((float) options.number("segmentStrokeWidth", 2)));
+            g.draw(area);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.dukescript.charts.image;
+
+
+/*
+ * #%L
+ * Charts Images - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import javax.imageio.ImageIO;
+import javax.xml.parsers.DocumentBuilderFactory;
+import net.java.html.charts.Chart;
+import net.java.html.charts.Color;
+import net.java.html.charts.Config;
+import net.java.html.charts.Segment;
+import net.java.html.charts.Values;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+public class ChartRasterizerTest {
+    private static final int RED = 0xffff0000;
+    private static final int BLUE = 0xff0000ff;
+
+    private static Chart<Values, Config> line(int count) {
+        Chart<Values, Config> chart = Chart.createLine(
+            new Values.Set("Set", Color.valueOf("rgba(0,0,0,0)"), Color.valueOf("#f00"))
+        );
+        chart.getConfig().set("datasetFill", false).set("showScale", false);
+        for (int i = 0; i < count; i++) {
+            chart.getData().add(new Values("V" + i, i % 10));
+        }
+        return chart;
+    }
+
+    private static int count(BufferedImage image, int rgb) {
+        int cnt = 0;
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                if (image.getRGB(x, y) == rgb) {
+                    cnt++;
+                }
+            }
+        }
+        return cnt;
+    }
+
+    @Test
+    public void lineDrawnInStrokeColor() {
+        BufferedImage image = ChartRasterizer.create(200, 100).render(line(10));
+        assertEquals(image.getWidth(), 200);
+        assertEquals(image.getHeight(), 100);
+        assertTrue(count(image, RED) > 100, "Enough of red line: " + count(image, RED));
+        assertEquals(count(image, BLUE), 0);
+    }
+
+    @Test
+    public void pieStartsAtTopClockwise() {
+        Chart<Segment, Config> pie = Chart.createPie();
+        pie.getConfig().set("segmentShowStroke", false);
+        pie.getData().add(new Segment("Red", 1, Color.valueOf("red"), Color.valueOf("red")));
+        pie.getData().add(new Segment("Blue", 1, Color.valueOf("blue"), Color.valueOf("blue")));
+        BufferedImage image = ChartRasterizer.create(100, 100).render(pie);
+        assertEquals(image.getRGB(75, 50), RED, "First segment on the right");
+        assertEquals(image.getRGB(25, 50), BLUE, "Second on the left");
+    }
+
+    @Test
+    public void doughnutHasHole() {
+        Chart<Segment, Config> doughnut = Chart.createDoughnut();
+        doughnut.getData().add(new Segment("Red", 1, Color.valueOf("red"), Color.valueOf("red")));
+        BufferedImage image = ChartRasterizer.create(100, 100).withBackground(java.awt.Color.WHITE).render(doughnut);
+        assertEquals(image.getRGB(50, 50), 0xffffffff, "Center is empty");
+        assertEquals(image.getRGB(10, 50), RED, "Ring is red");
+    }
+
+    @Test
+    public void spikeSurvivesDecimation() {
+        Chart<Values, Config> chart = line(1000000);
+        chart.getData().set(500000, new Values("Spike", 100));
+        BufferedImage image = ChartRasterizer.create(400, 200).render(chart);
+        int top = -1;
+        for (int y = 0; y < image.getHeight() && top < 0; y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                if (image.getRGB(x, y) == RED) {
+                    top = y;
+                    break;
+                }
+            }
+        }
+        assertTrue(top >= 0 && top < 20, "The spike reaches the top: " + top);
+    }
+
+    @Test
+    public void parallelRenderingGivesSameImages() {
+        List<Chart<?, ?>> charts = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            Chart<Values, Config> chart = Chart.createBar(
+                new Values.Set("A", Color.valueOf("#0000ff"), Color.valueOf("#ff0000")),
+                new Values.Set("B", Color.valueOf("rgba(0,255,0,0.5)"), Color.valueOf("green"))
+            );
+            for (int j = 0; j < 5 + i; j++) {
+                chart.getData().add(new Values("B" + j, j * i, j - i));
+            }
+            charts.add(chart);
+        }
+        ChartRasterizer raster = ChartRasterizer.create(300, 150);
+        List<BufferedImage> all = raster.renderAll(charts);
+        assertEquals(all.size(), charts.size());
+        for (int i = 0; i < charts.size(); i++) {
+            BufferedImage one = raster.render(charts.get(i));
+            assertEquals(
+                all.get(i).getRGB(0, 0, 300, 150, null, 0, 300),
+                one.getRGB(0, 0, 300, 150, null, 0, 300),
+                "Image " + i
+            );
+        }
+    }
+
+    @Test
+    public void writesPng() throws Exception {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ChartRasterizer.create(120, 80).writePng(line(5), os);
+        BufferedImage read = ImageIO.read(new ByteArrayInputStream(os.toByteArray()));
+        assertEquals(read.getWidth(), 120);
+        assertEquals(read.getHeight(), 80);
+        assertTrue(count(read, RED) > 0);
+    }
+
+    @Test
+    public void gridMatchesSvgExport() throws Exception {
+        Chart<Values, Config> chart = Chart.createLine(
+            new Values.Set("Set", Color.valueOf("rgba(0,0,0,0)"), Color.valueOf("#f00"))
+        );
+        chart.getConfig().set("datasetFill", false).set("datasetStroke", false).set("pointDot", false).
+            set("scaleShowLabels", false).set("scaleGridLineColor", "#000").set("scaleLineColor", "#000");
+        for (int i = 0; i < 20; i++) {
+            chart.getData().add(new Values("", i * 7 % 23));
+        }
+        StringWriter w = new StringWriter();
+        chart.writeSvg(w, 300, 200);
+        Document svg = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new InputSource(new StringReader(w.toString())));
+        List<Double> lines = new ArrayList<>();
+        NodeList paths = svg.getElementsByTagName("path");
+        for (int i = 0; i < paths.getLength(); i++) {
+            Element e = (Element) paths.item(i);
+            if ("#000".equals(e.getAttribute("stroke"))) {
+                String d = e.getAttribute("d");
+                lines.add(Double.parseDouble(d.substring(d.indexOf(',') + 1, d.indexOf('H'))));
+            }
+        }
+        assertTrue(lines.size() > 2, "Several steps: " + w);
+
+        BufferedImage image = ChartRasterizer.create(300, 200).withBackground(java.awt.Color.WHITE).render(chart);
+        // centres of the antialiased runs of non-white pixels
+        List<Double> rows = new ArrayList<>();
+        for (int y = 0; y < image.getHeight(); y++) {
+            if (image.getRGB(150, y) != 0xffffffff) {
+                int end = y;
+                while (end + 1 < image.getHeight() && image.getRGB(150, end + 1) != 0xffffffff) {
+                    end++;
+                }
+                rows.add((y + end + 1) / 2.0);
+                y = end;
+            }
+        }
+        assertEquals(rows.size(), lines.size(), "Same number of grid lines: " + rows + " vs. " + lines);
+        for (int i = 0; i < rows.size(); i++) {
+            final double y = lines.get(lines.size() - 1 - i);
+            assertTrue(Math.abs(rows.get(i) - y) <= 1, "Line " + i + " at " + rows.get(i) + " vs. " + y);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void sizeMustBePositive() {
+        ChartRasterizer.create(0, 10);
+    }
+}
@@ -0,0 +1,50 @@
+package com.dukescript.charts.image;
+
+
+/*
+ * #%L
+ * Charts Images - a library from the "DukeScript" project.
+ * %%
+ * Copyright (C) 2015 Dukehoff GmbH
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.awt.Color;
+import static org.testng.Assert.assertEquals;
+import org.testng.annotations.Test;
+
+public class ColorsTest {
+    @Test
+    public void parsesHtmlColors() {
+        assertEquals(Colors.parse("#f80", null), new Color(0xff, 0x88, 0x00));
+        assertEquals(Colors.parse("#123456", null), new Color(0x12, 0x34, 0x56));
+        assertEquals(Colors.parse("rgb(1, 2, 3)", null), new Color(1, 2, 3));
+        assertEquals(Colors.parse("rgba(220,220,220,0.5)", null), new Color(220, 220, 220, 128));
+        assertEquals(Colors.parse(" Red ", null), Color.RED);
+    }
+
+    @Test
+    public void unknownGivesFallback() {
+        assertEquals(Colors.parse("hsl(0, 100%, 50%)", Color.BLACK), Color.BLACK);
+        assertEquals(Colors.parse("#12", Color.BLACK), Color.BLACK);
+        assertEquals(Colors.parse(null, Color.BLACK), Color.BLACK);
+    }
+}
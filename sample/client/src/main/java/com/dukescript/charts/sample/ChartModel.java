@@ -201,13 +201,10 @@ public final class ChartModel {
         @Override
         public void chartClick(ChartEvent ev) {
             final double d = delta(ev);
-            int index = 0;
-            for (Values v : chart.getData()) {
-                if (ev.getLabel().equals(v.getLabel())) {
-                    chart.getData().set(index, new Values(ev.getLabel(), ev.getValues()[0] + d));
-                    VALUES[index] += d;
-                }
-                index++;
+            final int index = ev.getIndex();
+            if (index >= 0) {
+                chart.getData().set(index, new Values(ev.getLabel(), ev.getValues()[0] + d));
+                VALUES[index] += d;
             }
         }
     }
@@ -222,14 +219,11 @@ public final class ChartModel {
         @Override
         public void chartClick(ChartEvent ev) {
             final double d = delta(ev);
-            int index = 0;
-            for (Segment v : chart.getData()) {
-                if (ev.getLabel().equals(v.getLabel())) {
-                    Color c = PALETTE[index % PALETTE.length];
-                    chart.getData().set(index, new Segment("Index" + index, ev.getValues()[0] + d, c, c));
-                    VALUES[index] += d;
-                }
-                index++;
+            final int index = ev.getIndex();
+            if (index >= 0) {
+                Color c = PALETTE[index % PALETTE.length];
+                chart.getData().set(index, new Segment("Index" + index, ev.getValues()[0] + d, c, c));
+                VALUES[index] += d;
             }
         }
     }